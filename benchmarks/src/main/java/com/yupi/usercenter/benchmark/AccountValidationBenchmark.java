@@ -0,0 +1,46 @@
+package com.yupi.usercenter.benchmark;
+
+import com.yupi.usercenter.utils.UserValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 账号特殊字符校验：每次编译正则（原注册 / 登录实现）、预编译正则与 UserValidator 位图查表对比
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountValidationBenchmark {
+
+    /**
+     * 原 UserServiceImpl 中的校验规则
+     */
+    private static final String VALID_PATTERN = "[`~!@#$%^&*()+=|{}':;',\\\\[\\\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]";
+
+    private static final Pattern COMPILED_PATTERN = Pattern.compile(VALID_PATTERN);
+
+    @Param({"yupi_account01", "yupi@account"})
+    private String userAccount;
+
+    @Benchmark
+    public boolean compileEveryCall() {
+        return Pattern.compile(VALID_PATTERN).matcher(userAccount).find();
+    }
+
+    @Benchmark
+    public boolean precompiledPattern() {
+        return COMPILED_PATTERN.matcher(userAccount).find();
+    }
+
+    @Benchmark
+    public boolean lookupTable() {
+        return UserValidator.containsIllegalChar(userAccount);
+    }
+}
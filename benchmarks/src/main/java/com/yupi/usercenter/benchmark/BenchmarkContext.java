@@ -0,0 +1,44 @@
+package com.yupi.usercenter.benchmark;
+
+import com.yupi.usercenter.UserCenterApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 启动连接 H2 的 Spring 上下文（不启动 Web 容器、不连接 Redis）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * 启动应用上下文
+     *
+     * @param jdbcUrl H2 连接串
+     * @return
+     */
+    public static ConfigurableApplicationContext start(String jdbcUrl) {
+        /* 命令行参数的优先级高于 jar 包里的 application.yml */
+        String[] args = {
+                "--spring.profiles.active=bench",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.session.store-type=none",
+                "--usercenter.cache.user.redis-enabled=false",
+                "--usercenter.cache.user.broadcast-enabled=false",
+                "--usercenter.index.sync-enabled=false",
+                "--usercenter.bloom.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=warn"
+        };
+        return new SpringApplicationBuilder(UserCenterApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+}
@@ -0,0 +1,124 @@
+package com.yupi.usercenter.benchmark;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.util.DigestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试数据生成器：向 H2 内存库写入固定种子的随机用户
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class BenchmarkDataGenerator {
+
+    /**
+     * 标签池，前面的标签出现概率更高（模拟热门标签）
+     */
+    public static final String[] TAG_POOL = {
+            "java", "python", "c++", "go", "javascript", "rust", "男", "女", "大一", "大二",
+            "大三", "大四", "求职", "考研", "后端", "前端", "算法", "运维", "测试", "产品",
+            "乒乓球", "篮球", "足球", "羽毛球", "游泳", "跑步", "摄影", "音乐", "电影", "读书",
+            "emo", "快乐", "单身", "恋爱中", "上海", "北京", "深圳", "杭州", "广州", "成都"
+    };
+
+    private static final long SEED = 20220419L;
+
+    private static final int BATCH_SIZE = 5000;
+
+    private BenchmarkDataGenerator() {
+    }
+
+    /**
+     * H2 内存库连接串（MySQL 模式，连接关闭后库不销毁）
+     *
+     * @param name 库名
+     * @return
+     */
+    public static String jdbcUrl(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * 建表并写入 userCount 个用户（同时写 user_tag）
+     *
+     * @param jdbcUrl   连接串
+     * @param userCount 用户数
+     */
+    public static void generate(String jdbcUrl, int userCount) throws SQLException {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(), jdbcUrl, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("bench-schema.sql")).execute(dataSource);
+        Random random = new Random(SEED);
+        String password = DigestUtils.md5DigestAsHex("yupi12345678".getBytes());
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement userStatement = connection.prepareStatement(
+                    "insert into user (id, username, userAccount, avatarUrl, gender, userPassword, phone, email, planetCode, tags) "
+                            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement tagStatement = connection.prepareStatement(
+                         "insert into user_tag (userId, tag) values (?, ?)")) {
+                for (int i = 1; i <= userCount; i++) {
+                    List<String> tagList = randomTags(random);
+                    userStatement.setLong(1, i);
+                    userStatement.setString(2, "user" + i);
+                    userStatement.setString(3, "account" + i);
+                    userStatement.setString(4, "https://example.com/avatar/" + i + ".png");
+                    userStatement.setInt(5, random.nextInt(2));
+                    userStatement.setString(6, password);
+                    userStatement.setString(7, String.valueOf(13800000000L + i));
+                    userStatement.setString(8, "user" + i + "@example.com");
+                    userStatement.setString(9, String.valueOf(i));
+                    userStatement.setString(10, toJson(tagList));
+                    userStatement.addBatch();
+                    for (String tag : tagList) {
+                        tagStatement.setLong(1, i);
+                        tagStatement.setString(2, tag);
+                        tagStatement.addBatch();
+                    }
+                    if (i % BATCH_SIZE == 0) {
+                        userStatement.executeBatch();
+                        tagStatement.executeBatch();
+                        connection.commit();
+                    }
+                }
+                userStatement.executeBatch();
+                tagStatement.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    /* 每个用户 1 ~ 5 个不重复标签，标签下标取平方分布让热门标签更集中 */
+    private static List<String> randomTags(Random random) {
+        int tagCount = 1 + random.nextInt(5);
+        List<String> tagList = new ArrayList<>(tagCount);
+        while (tagList.size() < tagCount) {
+            double r = random.nextDouble();
+            String tag = TAG_POOL[(int) (r * r * TAG_POOL.length)];
+            if (!tagList.contains(tag)) {
+                tagList.add(tag);
+            }
+        }
+        Collections.sort(tagList);
+        return tagList;
+    }
+
+    private static String toJson(List<String> tagList) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < tagList.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(tagList.get(i)).append('"');
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.yupi.usercenter.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.DigestUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码摘要：DigestUtils（每次新建 MessageDigest）对比线程内复用 MessageDigest
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordDigestBenchmark {
+
+    private static final String SALT = "yupi";
+
+    private final String userPassword = "12345678";
+
+    private MessageDigest messageDigest;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        messageDigest = MessageDigest.getInstance("MD5");
+    }
+
+    @Benchmark
+    public String digestUtils() {
+        return DigestUtils.md5DigestAsHex((SALT + userPassword).getBytes());
+    }
+
+    @Benchmark
+    public byte[] reusedMessageDigest() {
+        messageDigest.reset();
+        return messageDigest.digest((SALT + userPassword).getBytes());
+    }
+}
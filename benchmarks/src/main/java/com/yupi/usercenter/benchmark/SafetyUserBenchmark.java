@@ -0,0 +1,63 @@
+package com.yupi.usercenter.benchmark;
+
+import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.service.UserService;
+import com.yupi.usercenter.service.impl.UserServiceImpl;
+import com.yupi.usercenter.utils.DesensitizeUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 列表接口里逐条调用 getSafetyUser 的开销
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SafetyUserBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int listSize;
+
+    private final UserService userService = new UserServiceImpl();
+
+    private List<User> userList;
+
+    @Setup
+    public void setUp() {
+        userList = new ArrayList<>(listSize);
+        for (int i = 1; i <= listSize; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setUserAccount("account" + i);
+            user.setAvatarUrl("https://example.com/avatar/" + i + ".png");
+            user.setGender(i % 2);
+            user.setUserPassword("b0dd3697a192885d7c055db46155b26a");
+            user.setPhone(String.valueOf(13800000000L + i));
+            user.setEmail("user" + i + "@example.com");
+            /* 写入时已计算好的脱敏值 */
+            user.setMaskedPhone(DesensitizeUtils.maskPhone(user.getPhone()));
+            user.setMaskedEmail(DesensitizeUtils.maskEmail(user.getEmail()));
+            user.setPlanetCode(String.valueOf(i));
+            user.setCreateTime(new Date());
+            user.setTags("[\"java\",\"python\"]");
+            userList.add(user);
+        }
+    }
+
+    @Benchmark
+    public List<UserVO> getSafetyUserList() {
+        return userList.stream().map(userService::getSafetyUser).collect(Collectors.toList());
+    }
+}
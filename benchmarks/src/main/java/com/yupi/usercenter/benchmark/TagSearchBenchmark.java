@@ -0,0 +1,59 @@
+package com.yupi.usercenter.benchmark;
+
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标签搜索：searchUsersByTags（索引）对比 searchUsersByTags2（全表内存过滤）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TagSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int userCount;
+
+    /**
+     * 一个热门标签 + 一个冷门标签
+     */
+    private final List<String> tagNameList = Arrays.asList("java", "摄影");
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String jdbcUrl = BenchmarkDataGenerator.jdbcUrl("tag_search_" + userCount);
+        BenchmarkDataGenerator.generate(jdbcUrl, userCount);
+        context = BenchmarkContext.start(jdbcUrl);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserVO> searchUsersByTags() {
+        return userService.searchUsersByTags(tagNameList);
+    }
+
+    @Benchmark
+    public List<UserVO> searchUsersByTags2() {
+        return userService.searchUsersByTags2(tagNameList);
+    }
+}
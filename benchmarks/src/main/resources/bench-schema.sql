@@ -0,0 +1,67 @@
+-- 基准测试用的 H2（MySQL 模式）表结构，与 sql/create_table.sql 保持一致
+
+create table if not exists user
+(
+    username     varchar(256)                       null,
+    id           bigint auto_increment primary key,
+    userAccount  varchar(256)                       null,
+    avatarUrl    varchar(1024)                      null,
+    gender       tinyint                            null,
+    userPassword varchar(512)                       not null,
+    phone        varchar(128)                       null,
+    email        varchar(512)                       null,
+    maskedPhone  varchar(128)                       null,
+    maskedEmail  varchar(512)                       null,
+    userStatus   int      default 0                 not null,
+    createTime   datetime default CURRENT_TIMESTAMP null,
+    updateTime   datetime default CURRENT_TIMESTAMP null,
+    isDelete     tinyint  default 0                 not null,
+    userRole     int      default 0                 not null,
+    version      int      default 0                 not null,
+    planetCode   varchar(512)                       null,
+    tags         varchar(1024)                      null,
+    profile      varchar(512)                       null,
+    activeUserAccount varchar(256) as (case when isDelete = 0 then userAccount end),
+    activePlanetCode  varchar(512) as (case when isDelete = 0 then planetCode end),
+    constraint uniIdx_userAccount unique (activeUserAccount),
+    constraint uniIdx_planetCode unique (activePlanetCode)
+);
+
+create index if not exists idx_userAccount on user (userAccount);
+
+create index if not exists idx_isDelete_id on user (isDelete, id);
+
+create table if not exists user_tag
+(
+    id         bigint auto_increment primary key,
+    userId     bigint                             not null,
+    tag        varchar(256)                       not null,
+    createTime datetime default CURRENT_TIMESTAMP null,
+    constraint uniIdx_tag_userId unique (tag, userId)
+);
+
+create index if not exists idx_userId_tag on user_tag (userId, tag);
+
+create table if not exists user_archive
+(
+    id           bigint                             not null primary key,
+    username     varchar(256)                       null,
+    userAccount  varchar(256)                       null,
+    avatarUrl    varchar(1024)                      null,
+    gender       tinyint                            null,
+    userPassword varchar(512)                       not null,
+    phone        varchar(128)                       null,
+    email        varchar(512)                       null,
+    maskedPhone  varchar(128)                       null,
+    maskedEmail  varchar(512)                       null,
+    userStatus   int      default 0                 not null,
+    createTime   datetime                           null,
+    updateTime   datetime                           null,
+    isDelete     tinyint  default 1                 not null,
+    userRole     int      default 0                 not null,
+    version      int      default 0                 not null,
+    planetCode   varchar(512)                       null,
+    tags         varchar(1024)                      null,
+    profile      varchar(512)                       null,
+    archiveTime  datetime default CURRENT_TIMESTAMP not null
+);
@@ -0,0 +1,17 @@
+package com.yupi.usercenter.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 响应式版本启动类（WebFlux + R2DBC），只扫描 reactive 包，主工程的类只作为普通类复用
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@SpringBootApplication
+public class ReactiveUserCenterApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveUserCenterApplication.class, args);
+    }
+}
@@ -0,0 +1,75 @@
+package com.yupi.usercenter.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.relational.core.mapping.NamingStrategy;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * R2DBC 配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+public class R2dbcConfig {
+
+    /**
+     * 表的列名是驼峰的（userAccount），与字段名相同，不转换成下划线
+     *
+     * @return
+     */
+    @Bean
+    public NamingStrategy namingStrategy() {
+        return new NamingStrategy() {
+            @Override
+            public String getColumnName(RelationalPersistentProperty property) {
+                return property.getName();
+            }
+        };
+    }
+
+    /**
+     * R2DBC 驱动把 datetime 读成 LocalDateTime，主工程的 UserVO、User 用的是 Date
+     *
+     * @param connectionFactory
+     * @return
+     */
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory),
+                Arrays.asList(LocalDateTimeToDateConverter.INSTANCE, DateToLocalDateTimeConverter.INSTANCE));
+    }
+
+    @ReadingConverter
+    enum LocalDateTimeToDateConverter implements Converter<LocalDateTime, Date> {
+
+        INSTANCE;
+
+        @Override
+        public Date convert(LocalDateTime source) {
+            return Date.from(source.atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    @WritingConverter
+    enum DateToLocalDateTimeConverter implements Converter<Date, LocalDateTime> {
+
+        INSTANCE;
+
+        @Override
+        public LocalDateTime convert(Date source) {
+            return LocalDateTime.ofInstant(source.toInstant(), ZoneId.systemDefault());
+        }
+    }
+}
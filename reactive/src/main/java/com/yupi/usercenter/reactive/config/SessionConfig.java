@@ -0,0 +1,25 @@
+package com.yupi.usercenter.reactive.config;
+
+import com.yupi.usercenter.auth.UserPrincipalRedisSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Session 配置（响应式 Redis session）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+public class SessionConfig {
+
+    /**
+     * session 属性的序列化器，与主工程相同，登录态 UserPrincipal 用紧凑的二进制格式保存
+     *
+     * @return
+     */
+    @Bean("springSessionDefaultRedisSerializer")
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
+        return new UserPrincipalRedisSerializer();
+    }
+}
@@ -0,0 +1,182 @@
+package com.yupi.usercenter.reactive.controller;
+
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.common.BaseResponse;
+import com.yupi.usercenter.common.CursorPage;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.common.ResultUtils;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.model.domain.request.UserLoginRequest;
+import com.yupi.usercenter.model.domain.request.UserRegisterRequest;
+import com.yupi.usercenter.model.enums.UserValidationError;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.reactive.model.domain.User;
+import com.yupi.usercenter.reactive.service.ReactiveUserService;
+import com.yupi.usercenter.utils.UserValidator;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 用户接口（WebFlux），路径、参数和返回格式与主工程的 UserController 相同
+ * 登录态保存在响应式 session 中（spring.session.store-type=redis 时保存在 Redis）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@RestController
+@RequestMapping("/user")
+@CrossOrigin
+public class ReactiveUserController {
+
+    @Resource
+    private ReactiveUserService reactiveUserService;
+
+    /**
+     * 用户注册
+     *
+     * @param userRegisterRequest
+     * @return
+     */
+    @PostMapping("/register")
+    public Mono<BaseResponse<Long>> userRegister(@RequestBody UserRegisterRequest userRegisterRequest) {
+        String userAccount = userRegisterRequest.getUserAccount();
+        String userPassword = userRegisterRequest.getUserPassword();
+        String checkPassword = userRegisterRequest.getCheckPassword();
+        String planetCode = userRegisterRequest.getPlanetCode();
+        /* 与主工程一致：为空时没有响应体，长度、特殊字符等由 userRegister 校验 */
+        if (UserValidator.validateRegister(userAccount, userPassword, checkPassword, planetCode) == UserValidationError.PARAMS_BLANK) {
+            return Mono.empty();
+        }
+        return reactiveUserService.userRegister(userAccount, userPassword, checkPassword, planetCode)
+                .map(ResultUtils::success);
+    }
+
+    /**
+     * 用户登录
+     *
+     * @param userLoginRequest
+     * @param session
+     * @return 账号或密码错误时 data 为 null
+     */
+    @PostMapping("/login")
+    public Mono<BaseResponse<UserVO>> userLogin(@RequestBody UserLoginRequest userLoginRequest, WebSession session) {
+        String userAccount = userLoginRequest.getUserAccount();
+        String userPassword = userLoginRequest.getUserPassword();
+        /* 长度、特殊字符不合法时由 userLogin 返回空 */
+        if (UserValidator.validateLogin(userAccount, userPassword) == UserValidationError.PARAMS_BLANK) {
+            return Mono.just(ResultUtils.error(ErrorCode.PARAMS_ERROR));
+        }
+        return reactiveUserService.userLogin(userAccount, userPassword, session)
+                .map(ResultUtils::success)
+                .defaultIfEmpty(ResultUtils.success(null));
+    }
+
+    /**
+     * 用户注销
+     *
+     * @param session
+     * @return
+     */
+    @PostMapping("/logout")
+    public Mono<BaseResponse<Integer>> userLogout(WebSession session) {
+        return reactiveUserService.userLogout(session).map(ResultUtils::success);
+    }
+
+    /**
+     * 获取当前用户
+     *
+     * @param session
+     * @return 未登录时返回 NOT_LOGIN
+     */
+    @GetMapping("/current")
+    public Mono<BaseResponse<UserVO>> getCurrentUser(WebSession session) {
+        return reactiveUserService.getLoginUser(session)
+                .flatMap(principal -> reactiveUserService.getSafetyUserById(principal.getId()))
+                .map(ResultUtils::success)
+                .defaultIfEmpty(ResultUtils.success(null));
+    }
+
+    /**
+     * 用户搜索（游标分页，仅管理员）
+     *
+     * @param username 用户名或账号
+     * @param afterId  游标
+     * @param pageSize 每页条数
+     * @param session
+     * @return
+     */
+    @GetMapping("/search")
+    public Mono<BaseResponse<CursorPage<UserVO>>> searchUsers(@RequestParam(required = false) String username,
+                                                              @RequestParam(required = false) Long afterId,
+                                                              @RequestParam(required = false) Integer pageSize,
+                                                              WebSession session) {
+        return requireAdmin(session)
+                .then(reactiveUserService.searchUsers(username, afterId, pageSize))
+                .map(ResultUtils::success);
+    }
+
+    /**
+     * 根据标签搜索用户（游标分页）
+     *
+     * @param tagNameList 标签
+     * @param afterId     游标
+     * @param pageSize    每页条数
+     * @return
+     */
+    @GetMapping("/search/tags")
+    public Mono<BaseResponse<CursorPage<UserVO>>> searchUsersTags(@RequestParam(required = false) List<String> tagNameList,
+                                                                  @RequestParam(required = false) Long afterId,
+                                                                  @RequestParam(required = false) Integer pageSize) {
+        if (CollectionUtils.isEmpty(tagNameList)) {
+            return Mono.error(new BusinessException(ErrorCode.PARAMS_ERROR));
+        }
+        return reactiveUserService.searchUsersByTags(tagNameList, afterId, pageSize).map(ResultUtils::success);
+    }
+
+    /**
+     * 删除用户（逻辑删除，仅管理员）
+     *
+     * @param id      用户 id
+     * @param session
+     * @return
+     */
+    @PostMapping("/delete")
+    public Mono<BaseResponse<Boolean>> deleteUser(@RequestBody long id, WebSession session) {
+        if (id <= 0) {
+            return Mono.error(new BusinessException(ErrorCode.PARAMS_ERROR));
+        }
+        return requireAdmin(session)
+                .then(reactiveUserService.removeById(id))
+                .map(ResultUtils::success);
+    }
+
+    /**
+     * 用户信息修改
+     *
+     * @param user    要更新的用户信息（version 为读取时的版本号，已被他人修改时返回 CONFLICT）
+     * @param session
+     * @return
+     */
+    @PostMapping("/update")
+    public Mono<BaseResponse<Integer>> updateUser(@RequestBody User user, WebSession session) {
+        return reactiveUserService.getLoginUser(session)
+                .flatMap(loginUser -> reactiveUserService.updateUser(user, loginUser))
+                .map(ResultUtils::success);
+    }
+
+    /**
+     * 要求当前用户是管理员
+     *
+     * @param session
+     * @return 未登录时返回 NOT_LOGIN，不是管理员时返回 NO_AUTH
+     */
+    private Mono<UserPrincipal> requireAdmin(WebSession session) {
+        return reactiveUserService.getLoginUser(session)
+                .filter(reactiveUserService::isAdmin)
+                .switchIfEmpty(Mono.error(new BusinessException(ErrorCode.NO_AUTH)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.yupi.usercenter.reactive.model.domain;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.Date;
+
+/**
+ * 用户实体（R2DBC），字段与主工程的 User 相同，列名即字段名
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Table("user")
+@Data
+public class User {
+
+    /**
+     * id
+     */
+    @Id
+    private Long id;
+
+    /**
+     * 用户昵称
+     */
+    private String username;
+
+    /**
+     * 账号
+     */
+    private String userAccount;
+
+    /**
+     * 用户头像
+     */
+    private String avatarUrl;
+
+    /**
+     * 性别
+     */
+    private Integer gender;
+
+    /**
+     * 密码
+     */
+    private String userPassword;
+
+    /**
+     * 电话
+     */
+    private String phone;
+
+    /**
+     * 邮箱
+     */
+    private String email;
+
+    /**
+     * 脱敏后的电话（写入电话时同时计算）
+     */
+    private String maskedPhone;
+
+    /**
+     * 脱敏后的邮箱（写入邮箱时同时计算）
+     */
+    private String maskedEmail;
+
+    /**
+     * 状态 0 - 正常
+     */
+    private Integer userStatus;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     *
+     */
+    private Date updateTime;
+
+    /**
+     * 是否删除
+     */
+    private Integer isDelete;
+
+    /**
+     * 用户角色 0 - 普通用户 1 - 管理员
+     */
+    private Integer userRole;
+
+    /**
+     * 版本号（乐观锁），修改时必须带上读取时的值
+     */
+    private Integer version;
+
+    /**
+     * 星球编号
+     */
+    private String planetCode;
+
+    /**
+     * 标签
+     */
+    private String tags;
+
+    /**
+     * 个人描述
+     */
+    private String profile;
+}
@@ -0,0 +1,31 @@
+package com.yupi.usercenter.reactive.model.domain;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * 用户标签关联（R2DBC），一个用户的每个标签一行
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Table("user_tag")
+@Data
+public class UserTag {
+
+    /**
+     * id
+     */
+    @Id
+    private Long id;
+
+    /**
+     * 用户 id
+     */
+    private Long userId;
+
+    /**
+     * 标签
+     */
+    private String tag;
+}
@@ -0,0 +1,94 @@
+package com.yupi.usercenter.reactive.repository;
+
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.reactive.model.domain.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * 用户仓库（R2DBC）
+ * 脱敏查询只查询公开列和已脱敏的手机号、邮箱，直接映射为 UserVO
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+
+    String SAFETY_COLUMNS = "id, username, userAccount, avatarUrl, gender, "
+            + "coalesce(maskedPhone, '****') as phone, coalesce(maskedEmail, '****') as email, "
+            + "planetCode, createTime, tags, version";
+
+    /**
+     * 按账号和加密后的密码查询未删除的用户（登录）
+     *
+     * @param userAccount  账号
+     * @param userPassword 加密后的密码
+     * @return
+     */
+    @Query("select * from user where userAccount = :userAccount and userPassword = :userPassword and isDelete = 0")
+    Mono<User> findLoginUser(String userAccount, String userPassword);
+
+    /**
+     * 根据 id 查询脱敏后的用户
+     *
+     * @param id 用户 id
+     * @return
+     */
+    @Query("select " + SAFETY_COLUMNS + " from user where id = :id and isDelete = 0")
+    Mono<UserVO> findSafetyUserById(long id);
+
+    /**
+     * 按 id 批量查询脱敏后的用户
+     *
+     * @param ids 用户 id
+     * @return
+     */
+    @Query("select " + SAFETY_COLUMNS + " from user where id in (:ids) and isDelete = 0 order by id")
+    Flux<UserVO> findSafetyUsersByIds(Collection<Long> ids);
+
+    /**
+     * 游标分页查询脱敏后的用户
+     *
+     * @param afterId 游标（上一页最后一个用户的 id）
+     * @param limit   条数
+     * @return
+     */
+    @Query("select " + SAFETY_COLUMNS + " from user where isDelete = 0 and id > :afterId order by id limit :limit")
+    Flux<UserVO> findSafetyUsers(long afterId, int limit);
+
+    /**
+     * 按用户名或账号（子串匹配）游标分页查询脱敏后的用户
+     *
+     * @param keyword 关键字
+     * @param afterId 游标（上一页最后一个用户的 id）
+     * @param limit   条数
+     * @return
+     */
+    @Query("select " + SAFETY_COLUMNS + " from user where isDelete = 0 and id > :afterId"
+            + " and (username like concat('%', :keyword, '%') or userAccount like concat('%', :keyword, '%'))"
+            + " order by id limit :limit")
+    Flux<UserVO> findSafetyUsersByKeyword(String keyword, long afterId, int limit);
+
+    /**
+     * 未删除的用户是否存在
+     *
+     * @param id 用户 id
+     * @return
+     */
+    @Query("select count(*) from user where id = :id and isDelete = 0")
+    Mono<Long> countActiveById(long id);
+
+    /**
+     * 逻辑删除用户
+     *
+     * @param id 用户 id
+     * @return 影响行数
+     */
+    @Modifying
+    @Query("update user set isDelete = 1 where id = :id and isDelete = 0")
+    Mono<Integer> logicDeleteById(long id);
+}
@@ -0,0 +1,41 @@
+package com.yupi.usercenter.reactive.repository;
+
+import com.yupi.usercenter.reactive.model.domain.UserTag;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * 用户标签关联仓库（R2DBC）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserTagRepository extends ReactiveCrudRepository<UserTag, Long> {
+
+    /**
+     * 查询拥有全部标签的用户 id（游标分页）：tag in (...) group by userId having count(*) = n
+     *
+     * @param tags     标签（已去重）
+     * @param tagCount 标签个数
+     * @param afterId  游标
+     * @param limit    条数
+     * @return 按 id 升序的用户 id
+     */
+    @Query("select userId from user_tag where tag in (:tags) and userId > :afterId"
+            + " group by userId having count(*) = :tagCount order by userId limit :limit")
+    Flux<Long> findUserIdsByAllTags(Collection<String> tags, int tagCount, long afterId, int limit);
+
+    /**
+     * 删除用户的全部标签
+     *
+     * @param userId 用户 id
+     * @return 删除的行数
+     */
+    @Modifying
+    @Query("delete from user_tag where userId = :userId")
+    Mono<Integer> deleteByUserId(long userId);
+}
@@ -0,0 +1,108 @@
+package com.yupi.usercenter.reactive.service;
+
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.common.CursorPage;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.reactive.model.domain.User;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 用户服务（响应式），语义与主工程的 UserService 相同，所有数据库访问都不阻塞线程
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface ReactiveUserService {
+
+    /**
+     * 用户注册
+     *
+     * @param userAccount   用户账户
+     * @param userPassword  用户密码
+     * @param checkPassword 校验密码
+     * @param planetCode    星球编号
+     * @return 新用户 id
+     */
+    Mono<Long> userRegister(String userAccount, String userPassword, String checkPassword, String planetCode);
+
+    /**
+     * 用户登录，登录态保存在 session 中
+     *
+     * @param userAccount  用户账户
+     * @param userPassword 用户密码
+     * @param session
+     * @return 脱敏后的用户信息，账号或密码错误时为空
+     */
+    Mono<UserVO> userLogin(String userAccount, String userPassword, WebSession session);
+
+    /**
+     * 用户注销
+     *
+     * @param session
+     * @return
+     */
+    Mono<Integer> userLogout(WebSession session);
+
+    /**
+     * 获取登录态
+     *
+     * @param session
+     * @return 未登录时抛出 NOT_LOGIN
+     */
+    Mono<UserPrincipal> getLoginUser(WebSession session);
+
+    /**
+     * 根据 id 获取脱敏后的用户
+     *
+     * @param userId 用户 id
+     * @return
+     */
+    Mono<UserVO> getSafetyUserById(long userId);
+
+    /**
+     * 根据用户名或账号搜索用户（游标分页）
+     *
+     * @param username 用户名或账号（子串匹配），为空时查询全部
+     * @param afterId  游标
+     * @param pageSize 每页条数
+     * @return
+     */
+    Mono<CursorPage<UserVO>> searchUsers(String username, Long afterId, Integer pageSize);
+
+    /**
+     * 根据标签搜索用户（游标分页）
+     *
+     * @param tagNameList 用户要搜索的标签
+     * @param afterId     游标
+     * @param pageSize    每页条数
+     * @return
+     */
+    Mono<CursorPage<UserVO>> searchUsersByTags(List<String> tagNameList, Long afterId, Integer pageSize);
+
+    /**
+     * 用户信息修改
+     *
+     * @param user      要更新的用户信息（必须带上读取时的 version）
+     * @param loginUser 当前登录的用户
+     * @return
+     */
+    Mono<Integer> updateUser(User user, UserPrincipal loginUser);
+
+    /**
+     * 删除用户（逻辑删除）
+     *
+     * @param userId 用户 id
+     * @return
+     */
+    Mono<Boolean> removeById(long userId);
+
+    /**
+     * 是否为管理员
+     *
+     * @param loginUser
+     * @return
+     */
+    boolean isAdmin(UserPrincipal loginUser);
+}
@@ -0,0 +1,389 @@
+package com.yupi.usercenter.reactive.service.impl;
+
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.common.CursorPage;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.contant.CommonConstant;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.model.enums.UserValidationError;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.reactive.model.domain.User;
+import com.yupi.usercenter.reactive.model.domain.UserTag;
+import com.yupi.usercenter.reactive.repository.UserRepository;
+import com.yupi.usercenter.reactive.repository.UserTagRepository;
+import com.yupi.usercenter.reactive.service.ReactiveUserService;
+import com.yupi.usercenter.utils.DesensitizeUtils;
+import com.yupi.usercenter.utils.DuplicateKeyUtils;
+import com.yupi.usercenter.utils.PasswordUtils;
+import com.yupi.usercenter.utils.TagUtils;
+import com.yupi.usercenter.utils.UserValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.yupi.usercenter.contant.UserConstant.ADMIN_ROLE;
+import static com.yupi.usercenter.contant.UserConstant.USER_LOGIN_STATE;
+
+/**
+ * 用户服务实现类（响应式）
+ * 用 R2DBC 访问数据库，慢查询不再占用线程；标签、用户名搜索直接查询数据库（不使用主工程的内存索引，但修改用户后会通知主工程更新）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Service
+@Slf4j
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    /**
+     * 主工程用户缓存在 Redis 中的键前缀，修改、删除用户后删除，主工程节点不再读到旧数据
+     */
+    private static final String USER_CACHE_KEY_PREFIX = "usercenter:user:vo:";
+
+    /**
+     * 主工程本地用户缓存的失效通知频道，消息格式为 "节点 id:用户 id"，主工程节点收到后删除本地缓存
+     */
+    private static final String USER_CACHE_INVALIDATE_CHANNEL = "usercenter:user:cache:invalidate";
+
+    /**
+     * 主工程内存索引（标签、用户名）的修改通知频道，消息格式为 "节点 id:用户 id"，主工程节点收到后从数据库重新加载该用户
+     */
+    private static final String USER_INDEX_CHANNEL = "usercenter:index:user-changed";
+
+    private final String nodeId = "reactive-" + UUID.randomUUID();
+
+    @Resource
+    private UserRepository userRepository;
+
+    @Resource
+    private UserTagRepository userTagRepository;
+
+    @Resource
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Resource
+    private TransactionalOperator transactionalOperator;
+
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Value("${usercenter.cache.user.redis-enabled:true}")
+    private boolean userCacheRedisEnabled;
+
+    @Value("${usercenter.cache.user.broadcast-enabled:true}")
+    private boolean userCacheBroadcastEnabled;
+
+    @Override
+    public Mono<Long> userRegister(String userAccount, String userPassword, String checkPassword, String planetCode) {
+        // 1. 校验（非空、长度、账户不能包含特殊字符、密码和校验密码相同）
+        UserValidationError validationError = UserValidator.validateRegister(userAccount, userPassword, checkPassword, planetCode);
+        if (validationError == UserValidationError.ACCOUNT_ILLEGAL_CHAR || validationError == UserValidationError.PASSWORD_NOT_MATCH) {
+            return Mono.just(-1L);
+        }
+        if (validationError != null) {
+            return Mono.error(new BusinessException(ErrorCode.PARAMS_ERROR, validationError.getMessage()));
+        }
+        // 2. 加密
+        String encryptPassword = PasswordUtils.encrypt(userPassword);
+        // 3. 插入数据（账户、星球编号不能重复，由唯一索引保证）
+        User user = new User();
+        user.setUserAccount(userAccount);
+        user.setUserPassword(encryptPassword);
+        user.setPlanetCode(planetCode);
+        user.setMaskedPhone(DesensitizeUtils.maskPhone(null));
+        user.setMaskedEmail(DesensitizeUtils.maskEmail(null));
+        return userRepository.save(user)
+                .map(User::getId)
+                .onErrorMap(DataIntegrityViolationException.class, this::toDuplicateException)
+                .flatMap(userId -> publishIndexChange(userId).thenReturn(userId));
+    }
+
+    @Override
+    public Mono<UserVO> userLogin(String userAccount, String userPassword, WebSession session) {
+        if (UserValidator.validateLogin(userAccount, userPassword) != null) {
+            return Mono.empty();
+        }
+        /* 数据库存储的是加密后的密码，所以要加密后进行对比 */
+        String encryptPassword = PasswordUtils.encrypt(userPassword);
+        return userRepository.findLoginUser(userAccount, encryptPassword)
+                .switchIfEmpty(Mono.fromRunnable(() -> log.info("user login failed, userAccount cannot match userPassword")))
+                /* 登录后更换 session id，防止会话固定攻击；只保存 id、角色、状态、版本戳 */
+                .flatMap(user -> session.changeSessionId()
+                        .then(Mono.fromSupplier(() -> {
+                            session.getAttributes().put(USER_LOGIN_STATE, toPrincipal(user));
+                            return getSafetyUser(user);
+                        })));
+    }
+
+    @Override
+    public Mono<Integer> userLogout(WebSession session) {
+        session.getAttributes().remove(USER_LOGIN_STATE);
+        return Mono.just(1);
+    }
+
+    @Override
+    public Mono<UserPrincipal> getLoginUser(WebSession session) {
+        Object userObj = session.getAttribute(USER_LOGIN_STATE);
+        if (!(userObj instanceof UserPrincipal)) {
+            return Mono.error(new BusinessException(ErrorCode.NOT_LOGIN));
+        }
+        return Mono.just((UserPrincipal) userObj);
+    }
+
+    @Override
+    public Mono<UserVO> getSafetyUserById(long userId) {
+        return userRepository.findSafetyUserById(userId);
+    }
+
+    @Override
+    public Mono<CursorPage<UserVO>> searchUsers(String username, Long afterId, Integer pageSize) {
+        int size = getPageSize(pageSize);
+        String keyword = StringUtils.trimToNull(username);
+        long cursor = afterId == null ? 0 : afterId;
+        /* 多取一条，用来判断是否还有下一页 */
+        Flux<UserVO> safetyUsers = keyword == null
+                ? userRepository.findSafetyUsers(cursor, size + 1)
+                : userRepository.findSafetyUsersByKeyword(keyword, cursor, size + 1);
+        return safetyUsers.collectList().map(safetyUserList -> CursorPage.of(safetyUserList, size, UserVO::getId));
+    }
+
+    @Override
+    public Mono<CursorPage<UserVO>> searchUsersByTags(List<String> tagNameList, Long afterId, Integer pageSize) {
+        if (CollectionUtils.isEmpty(tagNameList)) {
+            return Mono.error(new BusinessException(ErrorCode.PARAMS_ERROR));
+        }
+        int size = getPageSize(pageSize);
+        Set<String> tagSet = new HashSet<>(tagNameList);
+        /* tag in (...) group by userId having count(*) = n 得到一页用户 id，再按 id 查询 */
+        return userTagRepository.findUserIdsByAllTags(tagSet, tagSet.size(), afterId == null ? 0 : afterId, size + 1)
+                .collectList()
+                .flatMap(userIdList -> userIdList.isEmpty()
+                        ? Mono.just(new ArrayList<UserVO>())
+                        : userRepository.findSafetyUsersByIds(userIdList).collectList())
+                .map(safetyUserList -> CursorPage.of(safetyUserList, size, UserVO::getId));
+    }
+
+    /**
+     * 用户信息修改
+     * 只执行一条 update ... where id = ? and version = ? and isDelete = 0，影响行数为 0 时才再查一次，区分用户不存在和已被他人修改
+     *
+     * @param user      要更新的用户信息（必须带上读取时的 version）
+     * @param loginUser 当前登录的用户
+     * @return
+     */
+    @Override
+    public Mono<Integer> updateUser(User user, UserPrincipal loginUser) {
+        long userId = user.getId() == null ? 0 : user.getId();
+        if (userId <= 0) {
+            return Mono.error(new BusinessException(ErrorCode.PARAMS_ERROR));
+        }
+        /* 管理员可以修改任意用户，普通用户只能修改自己 */
+        boolean admin = isAdmin(loginUser);
+        if (!admin && userId != loginUser.getId()) {
+            return Mono.error(new BusinessException(ErrorCode.NO_AUTH));
+        }
+        /* 没有版本号时乐观锁不生效，会覆盖别人的修改 */
+        if (user.getVersion() == null) {
+            return Mono.error(new BusinessException(ErrorCode.PARAMS_ERROR, "缺少版本号"));
+        }
+        Update update = Update.update("version", user.getVersion() + 1);
+        /* 为 null 的字段表示本次没有修改 */
+        update = setIfNotNull(update, "username", user.getUsername());
+        update = setIfNotNull(update, "userAccount", user.getUserAccount());
+        update = setIfNotNull(update, "avatarUrl", user.getAvatarUrl());
+        update = setIfNotNull(update, "gender", user.getGender());
+        update = setIfNotNull(update, "planetCode", user.getPlanetCode());
+        update = setIfNotNull(update, "tags", user.getTags());
+        update = setIfNotNull(update, "profile", user.getProfile());
+        /* 脱敏列只由手机号、邮箱计算得到，忽略前端传入的值 */
+        if (user.getPhone() != null) {
+            update = update.set("phone", user.getPhone()).set("maskedPhone", DesensitizeUtils.maskPhone(user.getPhone()));
+        }
+        if (user.getEmail() != null) {
+            update = update.set("email", user.getEmail()).set("maskedEmail", DesensitizeUtils.maskEmail(user.getEmail()));
+        }
+        /* 角色、状态只有管理员可以修改（这里不刷新该用户已有 session 中的登录态，重新登录后生效） */
+        if (admin) {
+            update = setIfNotNull(update, "userRole", user.getUserRole());
+            update = setIfNotNull(update, "userStatus", user.getUserStatus());
+        }
+        Query query = Query.query(Criteria.where("id").is(userId)
+                .and("version").is(user.getVersion())
+                .and("isDelete").is(0));
+        Mono<Integer> updateMono = r2dbcEntityTemplate.update(query, update, User.class)
+                .onErrorMap(DataIntegrityViolationException.class, this::toDuplicateException)
+                .flatMap(result -> {
+                    if (result == 0) {
+                        /* 逻辑删除的用户同样视为不存在 */
+                        return userRepository.countActiveById(userId).flatMap(count -> Mono.error(count == 0
+                                ? new BusinessException(ErrorCode.NULL_ERROR, "用户不存在")
+                                : new BusinessException(ErrorCode.CONFLICT, "用户信息已被修改，请刷新后重试")));
+                    }
+                    /* tags 为 null 表示本次没有修改标签 */
+                    if (user.getTags() == null) {
+                        return Mono.just(result);
+                    }
+                    return replaceUserTags(userId, user.getTags()).thenReturn(result);
+                });
+        /* 事务提交后再删除缓存；标签、用户名、账号有修改时通知主工程更新内存索引 */
+        boolean indexChanged = user.getTags() != null || user.getUsername() != null || user.getUserAccount() != null;
+        return transactionalOperator.transactional(updateMono)
+                .flatMap(result -> invalidateUserCache(userId)
+                        .then(indexChanged ? publishIndexChange(userId) : Mono.empty())
+                        .thenReturn(result));
+    }
+
+    @Override
+    public Mono<Boolean> removeById(long userId) {
+        Mono<Boolean> removeMono = userRepository.logicDeleteById(userId)
+                .flatMap(result -> result == 0
+                        ? Mono.just(false)
+                        : userTagRepository.deleteByUserId(userId).thenReturn(true));
+        return transactionalOperator.transactional(removeMono)
+                .flatMap(result -> result
+                        ? invalidateUserCache(userId).then(publishIndexChange(userId)).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    @Override
+    public boolean isAdmin(UserPrincipal loginUser) {
+        return loginUser != null && loginUser.getUserRole() == ADMIN_ROLE;
+    }
+
+    /**
+     * 用户脱敏（已查出完整用户时使用，如登录）
+     *
+     * @param originUser
+     * @return
+     */
+    private UserVO getSafetyUser(User originUser) {
+        UserVO safetyUser = new UserVO();
+        safetyUser.setId(originUser.getId());
+        safetyUser.setUsername(originUser.getUsername());
+        safetyUser.setUserAccount(originUser.getUserAccount());
+        safetyUser.setAvatarUrl(originUser.getAvatarUrl());
+        safetyUser.setGender(originUser.getGender());
+        safetyUser.setPhone(originUser.getMaskedPhone() != null
+                ? originUser.getMaskedPhone() : DesensitizeUtils.maskPhone(originUser.getPhone()));
+        safetyUser.setEmail(originUser.getMaskedEmail() != null
+                ? originUser.getMaskedEmail() : DesensitizeUtils.maskEmail(originUser.getEmail()));
+        safetyUser.setPlanetCode(originUser.getPlanetCode());
+        safetyUser.setCreateTime(originUser.getCreateTime());
+        safetyUser.setTags(originUser.getTags());
+        safetyUser.setVersion(originUser.getVersion());
+        return safetyUser;
+    }
+
+    private UserPrincipal toPrincipal(User user) {
+        return new UserPrincipal(user.getId(),
+                user.getUserRole() == null ? 0 : user.getUserRole(),
+                user.getUserStatus() == null ? 0 : user.getUserStatus(),
+                user.getVersion() == null ? 0 : user.getVersion());
+    }
+
+    /**
+     * 重建用户的标签关联
+     *
+     * @param userId   用户 id
+     * @param tagsJson 标签 JSON
+     * @return
+     */
+    private Mono<Void> replaceUserTags(long userId, String tagsJson) {
+        List<UserTag> userTagList = new ArrayList<>();
+        for (String tag : TagUtils.parseTags(tagsJson)) {
+            if (tag == null) {
+                continue;
+            }
+            UserTag userTag = new UserTag();
+            userTag.setUserId(userId);
+            userTag.setTag(tag);
+            userTagList.add(userTag);
+        }
+        return userTagRepository.deleteByUserId(userId)
+                .thenMany(userTagRepository.saveAll(userTagList))
+                .then();
+    }
+
+    /**
+     * 删除主工程在 Redis 中的用户缓存，并通知主工程节点删除本地缓存，失败时只记录日志（缓存最多保留到过期）
+     *
+     * @param userId 用户 id
+     * @return
+     */
+    private Mono<Void> invalidateUserCache(long userId) {
+        Mono<Void> deleteMono = userCacheRedisEnabled
+                ? reactiveStringRedisTemplate.delete(USER_CACHE_KEY_PREFIX + userId)
+                .doOnError(e -> log.warn("invalidate user cache failed, userId: {}", userId, e))
+                .onErrorResume(e -> Mono.empty())
+                .then()
+                : Mono.empty();
+        Mono<Void> publishMono = userCacheBroadcastEnabled
+                ? reactiveStringRedisTemplate.convertAndSend(USER_CACHE_INVALIDATE_CHANNEL, nodeId + ":" + userId)
+                .doOnError(e -> log.warn("publish user cache invalidation failed, userId: {}", userId, e))
+                .onErrorResume(e -> Mono.empty())
+                .then()
+                : Mono.empty();
+        /* 先删 Redis 缓存再通知，主工程节点删除本地缓存后不会再从 Redis 读到旧数据 */
+        return deleteMono.then(publishMono);
+    }
+
+    /**
+     * 通知主工程节点更新内存索引，失败时只记录日志（主工程定时重建索引时补上）
+     *
+     * @param userId 用户 id
+     * @return
+     */
+    private Mono<Void> publishIndexChange(long userId) {
+        return reactiveStringRedisTemplate.convertAndSend(USER_INDEX_CHANNEL, nodeId + ":" + userId)
+                .doOnError(e -> log.warn("publish user index change failed, userId: {}", userId, e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private Update setIfNotNull(Update update, String column, Object value) {
+        return value == null ? update : update.set(column, value);
+    }
+
+    private int getPageSize(Integer pageSize) {
+        if (pageSize == null) {
+            return CommonConstant.DEFAULT_PAGE_SIZE;
+        }
+        if (pageSize <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "每页条数必须大于 0");
+        }
+        return Math.min(pageSize, CommonConstant.MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 把唯一索引冲突转换成业务异常（根据冲突的索引名区分账号还是星球编号）
+     * R2DBC 把唯一索引冲突转换成 DataIntegrityViolationException（不是 DuplicateKeyException），不是这两个索引时原样抛出
+     *
+     * @param e 数据完整性冲突
+     * @return
+     */
+    private Throwable toDuplicateException(DataIntegrityViolationException e) {
+        String message = DuplicateKeyUtils.getDuplicateMessage(e);
+        if (message != null) {
+            return new BusinessException(ErrorCode.PARAMS_ERROR, message);
+        }
+        return e;
+    }
+}
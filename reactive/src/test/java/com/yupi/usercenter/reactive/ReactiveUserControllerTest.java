@@ -0,0 +1,126 @@
+package com.yupi.usercenter.reactive;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseCookie;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import javax.annotation.Resource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应式用户接口测试（H2 内存库代替 MySQL，session 保存在内存中）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.mode=always",
+        "spring.session.store-type=none",
+        "usercenter.cache.user.redis-enabled=false",
+        "usercenter.cache.user.broadcast-enabled=false"
+})
+public class ReactiveUserControllerTest {
+
+    @Resource
+    private WebTestClient webTestClient;
+
+    @Resource
+    private DatabaseClient databaseClient;
+
+    @Test
+    void testUserApi() {
+        long userId = ((Number) post("/user/register", register("reactive01", "1"), null).get("data")).longValue();
+        Assertions.assertTrue(userId > 0);
+        Map<String, Object> duplicate = post("/user/register", register("reactive01", "2"), null);
+        Assertions.assertEquals(40000, duplicate.get("code"));
+        Assertions.assertEquals("账号重复", duplicate.get("description"));
+        Assertions.assertEquals(40100, get("/user/current", null).get("code"));
+
+        String session = login("reactive01");
+        Map<String, Object> update = new HashMap<>();
+        update.put("id", userId);
+        update.put("username", "reactive");
+        update.put("phone", "13800138000");
+        update.put("tags", "[\"java\"]");
+        update.put("version", 0);
+        Assertions.assertEquals(1, post("/user/update", update, session).get("data"));
+        /* 版本号已经变化 */
+        Assertions.assertEquals(40900, post("/user/update", update, session).get("code"));
+
+        Map<String, Object> current = data(get("/user/current", session));
+        Assertions.assertEquals("reactive", current.get("username"));
+        Assertions.assertEquals("138****8000", current.get("phone"));
+        Assertions.assertEquals(1, current.get("version"));
+        Assertions.assertEquals(1, records(get("/user/search/tags?tagNameList=java", null)).size());
+        Assertions.assertEquals(40101, get("/user/search", session).get("code"));
+
+        post("/user/register", register("reactiveadmin", "3"), null);
+        databaseClient.sql("update user set userRole = 1 where userAccount = 'reactiveadmin'").then().block();
+        String adminSession = login("reactiveadmin");
+        Assertions.assertEquals(1, records(get("/user/search?username=reactive0", adminSession)).size());
+        Assertions.assertEquals(true, post("/user/delete", userId, adminSession).get("data"));
+        Assertions.assertEquals(0, records(get("/user/search/tags?tagNameList=java", null)).size());
+        /* 已删除用户的账号、星球编号可以重新注册 */
+        Assertions.assertTrue(((Number) post("/user/register", register("reactive01", "1"), null).get("data")).longValue() > userId);
+    }
+
+    private Map<String, Object> register(String userAccount, String planetCode) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("userAccount", userAccount);
+        request.put("userPassword", "12345678");
+        request.put("checkPassword", "12345678");
+        request.put("planetCode", planetCode);
+        return request;
+    }
+
+    /**
+     * 登录并返回 session id
+     */
+    private String login(String userAccount) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("userAccount", userAccount);
+        request.put("userPassword", "12345678");
+        ResponseCookie cookie = webTestClient.post().uri("/user/login").bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Map.class).getResponseCookies().getFirst("SESSION");
+        Assertions.assertNotNull(cookie);
+        return cookie.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> post(String uri, Object body, String session) {
+        WebTestClient.RequestBodySpec spec = webTestClient.post().uri(uri);
+        if (session != null) {
+            spec.cookie("SESSION", session);
+        }
+        return spec.bodyValue(body).exchange().expectStatus().isOk().expectBody(Map.class).returnResult().getResponseBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> get(String uri, String session) {
+        WebTestClient.RequestHeadersSpec<?> spec = webTestClient.get().uri(uri);
+        if (session != null) {
+            spec.cookie("SESSION", session);
+        }
+        return spec.exchange().expectStatus().isOk().expectBody(Map.class).returnResult().getResponseBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> data(Map<String, Object> response) {
+        Assertions.assertEquals(0, response.get("code"), String.valueOf(response));
+        return (Map<String, Object>) response.get("data");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> records(Map<String, Object> response) {
+        return (List<Object>) data(response).get("records");
+    }
+}
@@ -20,15 +20,69 @@ create table user
     userPassword varchar(512)                       not null comment '密码',
     phone        varchar(128)                       null comment '电话',
     email        varchar(512)                       null comment '邮箱',
+    maskedPhone  varchar(128)                       null comment '脱敏后的电话',
+    maskedEmail  varchar(512)                       null comment '脱敏后的邮箱',
     userStatus   int      default 0                 not null comment '状态 0 - 正常',
     createTime   datetime default CURRENT_TIMESTAMP null comment '创建时间',
     updateTime   datetime default CURRENT_TIMESTAMP null on update CURRENT_TIMESTAMP,
     isDelete     tinyint  default 0                 not null comment '是否删除',
     userRole     int      default 0                 not null comment '用户角色 0 - 普通用户 1 - 管理员',
-    planetCode   varchar(512)                       null comment '星球编号'
+    version      int      default 0                 not null comment '版本号（乐观锁）',
+    planetCode   varchar(512)                       null comment '星球编号',
+    tags         varchar(1024)                      null comment '标签 json 列表',
+    profile      varchar(512)                       null comment '个人简介',
+    activeUserAccount varchar(256) generated always as (if(isDelete = 0, userAccount, null)) virtual comment '未删除用户的账号（唯一）',
+    activePlanetCode  varchar(512) generated always as (if(isDelete = 0, planetCode, null)) virtual comment '未删除用户的星球编号（唯一）',
+    constraint uniIdx_userAccount
+        unique (activeUserAccount),
+    constraint uniIdx_planetCode
+        unique (activePlanetCode),
+    index idx_userAccount (userAccount),
+    index idx_isDelete_id (isDelete, id)
 )
     comment '用户';
 
+# 用户标签关联表（由 user.tags 拆分而来，用于按标签查询）
+create table user_tag
+(
+    id         bigint auto_increment comment 'id'
+        primary key,
+    userId     bigint                             not null comment '用户 id',
+    tag        varchar(256)                       not null comment '标签',
+    createTime datetime default CURRENT_TIMESTAMP null comment '创建时间',
+    constraint uniIdx_tag_userId
+        unique (tag, userId),
+    index idx_userId_tag (userId, tag)
+)
+    comment '用户标签关联';
+
+# 已删除用户归档表（逻辑删除超过保留期的用户由 UserArchiveJob 从 user 表移入，可恢复）
+create table user_archive
+(
+    id           bigint                             not null comment 'id'
+        primary key,
+    username     varchar(256)                       null comment '用户昵称',
+    userAccount  varchar(256)                       null comment '账号',
+    avatarUrl    varchar(1024)                      null comment '用户头像',
+    gender       tinyint                            null comment '性别',
+    userPassword varchar(512)                       not null comment '密码',
+    phone        varchar(128)                       null comment '电话',
+    email        varchar(512)                       null comment '邮箱',
+    maskedPhone  varchar(128)                       null comment '脱敏后的电话',
+    maskedEmail  varchar(512)                       null comment '脱敏后的邮箱',
+    userStatus   int      default 0                 not null comment '状态 0 - 正常',
+    createTime   datetime                           null comment '创建时间',
+    updateTime   datetime                           null comment '更新时间（即删除时间）',
+    isDelete     tinyint  default 1                 not null comment '是否删除',
+    userRole     int      default 0                 not null comment '用户角色 0 - 普通用户 1 - 管理员',
+    version      int      default 0                 not null comment '版本号（乐观锁）',
+    planetCode   varchar(512)                       null comment '星球编号',
+    tags         varchar(1024)                      null comment '标签 json 列表',
+    profile      varchar(512)                       null comment '个人简介',
+    archiveTime  datetime default CURRENT_TIMESTAMP not null comment '归档时间'
+)
+    comment '已删除用户归档';
+
 # 导入示例用户
 INSERT INTO yupi.user (username, userAccount, avatarUrl, gender, userPassword, phone, email, userStatus, createTime, updateTime, isDelete, userRole, planetCode) VALUES ('鱼皮', 'yupi', 'https://himg.bdimg.com/sys/portraitn/item/public.1.e137c1ac.yS1WqOXfSWEasOYJ2-0pvQ', null, 'b0dd3697a192885d7c055db46155b26a', null, null, 0, '2023-08-06 14:14:22', '2023-08-06 14:39:37', 0, 1, '1');
 
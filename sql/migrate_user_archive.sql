@@ -0,0 +1,34 @@
+# 一次性迁移：创建已删除用户归档表（列与 user 表一致，另加 archiveTime；不建唯一索引，恢复时由 user 表的唯一索引检查冲突），
+# 并为 user 表添加 (isDelete, id) 索引，归档任务只扫描已删除的用户
+
+use yupi;
+
+# 已删除用户归档表（逻辑删除超过保留期的用户由 UserArchiveJob 从 user 表移入，可恢复）
+create table user_archive
+(
+    id           bigint                             not null comment 'id'
+        primary key,
+    username     varchar(256)                       null comment '用户昵称',
+    userAccount  varchar(256)                       null comment '账号',
+    avatarUrl    varchar(1024)                      null comment '用户头像',
+    gender       tinyint                            null comment '性别',
+    userPassword varchar(512)                       not null comment '密码',
+    phone        varchar(128)                       null comment '电话',
+    email        varchar(512)                       null comment '邮箱',
+    maskedPhone  varchar(128)                       null comment '脱敏后的电话',
+    maskedEmail  varchar(512)                       null comment '脱敏后的邮箱',
+    userStatus   int      default 0                 not null comment '状态 0 - 正常',
+    createTime   datetime                           null comment '创建时间',
+    updateTime   datetime                           null comment '更新时间（即删除时间）',
+    isDelete     tinyint  default 1                 not null comment '是否删除',
+    userRole     int      default 0                 not null comment '用户角色 0 - 普通用户 1 - 管理员',
+    version      int      default 0                 not null comment '版本号（乐观锁）',
+    planetCode   varchar(512)                       null comment '星球编号',
+    tags         varchar(1024)                      null comment '标签 json 列表',
+    profile      varchar(512)                       null comment '个人简介',
+    archiveTime  datetime default CURRENT_TIMESTAMP not null comment '归档时间'
+)
+    comment '已删除用户归档';
+
+alter table user
+    add index idx_isDelete_id (isDelete, id);
@@ -0,0 +1,8 @@
+# 一次性迁移：为 user 表添加脱敏后的手机号、邮箱列（注册、修改、导入时写入，列表查询直接读取，不再每次读取时脱敏）
+# 已有数据由应用启动后的 MaskedContactBackfillJob 按 id 分批回填（usercenter.masked-backfill.enabled）
+
+use yupi;
+
+alter table user
+    add column maskedPhone varchar(128) null comment '脱敏后的电话' after email,
+    add column maskedEmail varchar(512) null comment '脱敏后的邮箱' after maskedPhone;
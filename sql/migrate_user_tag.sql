@@ -0,0 +1,10 @@
+# 一次性迁移：把 user.tags 中的 JSON 标签拆分到 user_tag 表（需要 MySQL 8.0+ 的 JSON_TABLE）
+# 可重复执行，已存在的 (tag, userId) 会被忽略
+
+use yupi;
+
+insert ignore into user_tag (userId, tag)
+select u.id, jt.tag
+from (select id, tags from user where isDelete = 0 and json_valid(tags)) u,
+     json_table(u.tags, '$[*]' columns (tag varchar(256) path '$')) jt
+where jt.tag is not null;
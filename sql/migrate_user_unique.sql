@@ -0,0 +1,26 @@
+# 一次性迁移：未删除用户的 userAccount、planetCode 唯一（注册不再先查重，直接插入）
+# 唯一索引建在生成列上，逻辑删除的用户生成列为 null，不占用账号和星球编号
+# 添加前先用下面两条查询确认未删除的用户中没有重复数据，有重复需要先人工处理
+
+use yupi;
+
+select userAccount, count(*) as num
+from user
+where userAccount is not null
+  and isDelete = 0
+group by userAccount
+having num > 1;
+
+select planetCode, count(*) as num
+from user
+where planetCode is not null
+  and isDelete = 0
+group by planetCode
+having num > 1;
+
+alter table user
+    add column activeUserAccount varchar(256) generated always as (if(isDelete = 0, userAccount, null)) virtual comment '未删除用户的账号（唯一）',
+    add column activePlanetCode  varchar(512) generated always as (if(isDelete = 0, planetCode, null)) virtual comment '未删除用户的星球编号（唯一）',
+    add constraint uniIdx_userAccount unique (activeUserAccount),
+    add constraint uniIdx_planetCode unique (activePlanetCode),
+    add index idx_userAccount (userAccount);
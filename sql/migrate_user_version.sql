@@ -0,0 +1,6 @@
+# 一次性迁移：为 user 表添加乐观锁版本号（修改用户时 update ... where id = ? and version = ?，版本不一致时修改失败）
+
+use yupi;
+
+alter table user
+    add column version int default 0 not null comment '版本号（乐观锁）' after userRole;
@@ -4,6 +4,7 @@ package com.yupi.usercenter;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 启动类
@@ -14,6 +15,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 // 是 MyBatis 框架中的一个注解，用于自动扫描和注册 Mapper 接口
 @MapperScan("com.yupi.usercenter.mapper")
+// 开启定时任务
+@EnableScheduling
 public class UserCenterApplication {
 
     public static void main(String[] args) {
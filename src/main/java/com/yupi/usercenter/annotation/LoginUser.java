@@ -0,0 +1,21 @@
+package com.yupi.usercenter.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 注入当前登录用户（UserPrincipal）到 Controller 方法参数，每个请求只解析一次登录态
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LoginUser {
+
+    /**
+     * 是否必须登录：true 时未登录抛出 NOT_LOGIN，false 时未登录注入 null
+     */
+    boolean required() default true;
+}
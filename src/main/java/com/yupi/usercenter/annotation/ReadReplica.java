@@ -0,0 +1,18 @@
+package com.yupi.usercenter.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读的服务方法，加在 Service 实现类的方法或类上，开启读写分离（usercenter.datasource.read-replica.enabled）时
+ * 方法内的查询走从库（由 ReadReplicaAspect 切换）；已在读写事务中调用时仍走主库
+ * 注意：从库有复制延迟，刚写入后需要立即读到的查询（如修改资料后的 /user/current）不要加
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadReplica {
+}
@@ -0,0 +1,21 @@
+package com.yupi.usercenter.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 接口要求的用户角色，加在 Controller 方法或类上（方法上的优先），由 RequireRoleInterceptor 校验
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequireRole {
+
+    /**
+     * 要求的角色，见 UserConstant
+     */
+    int value();
+}
@@ -0,0 +1,38 @@
+package com.yupi.usercenter.aop;
+
+import com.yupi.usercenter.datasource.ReadWriteRoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 加了 @ReadReplica 的方法切换到从库
+ * 优先级最高，在 @Transactional 开启事务（获取连接）之前切换；已在读写事务中时连接已绑定主库，不切换
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "usercenter.datasource.read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaAspect {
+
+    @Around("@annotation(com.yupi.usercenter.annotation.ReadReplica) || @within(com.yupi.usercenter.annotation.ReadReplica)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return joinPoint.proceed();
+        }
+        boolean previous = ReadWriteRoutingDataSource.setReadReplica(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.setReadReplica(previous);
+        }
+    }
+}
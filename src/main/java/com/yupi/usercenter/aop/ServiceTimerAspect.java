@@ -0,0 +1,45 @@
+package com.yupi.usercenter.aop;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 服务方法计时：service.impl 包下所有服务的 public 方法（不含 MyBatis-Plus ServiceImpl 继承来的方法）
+ * 指标 usercenter.service，标签 class、method、exception，带百分位直方图，可按方法计算 p99
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Aspect
+@Component
+public class ServiceTimerAspect {
+
+    public static final String METRIC_NAME = "usercenter.service";
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Around("within(com.yupi.usercenter.service.impl..*) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.yupi.usercenter.auth;
+
+import com.yupi.usercenter.annotation.LoginUser;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.manager.LoginStateManager;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 解析 @LoginUser UserPrincipal 参数（登录态缓存在请求属性中，与 RequireRoleInterceptor 共用一次解析结果）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+public class LoginUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Resource
+    private LoginStateManager loginStateManager;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(LoginUser.class)
+                && UserPrincipal.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        UserPrincipal principal = request == null ? null : loginStateManager.getPrincipal(request);
+        LoginUser loginUser = parameter.getParameterAnnotation(LoginUser.class);
+        if (principal == null && loginUser != null && loginUser.required()) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        return principal;
+    }
+}
@@ -0,0 +1,296 @@
+package com.yupi.usercenter.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yupi.usercenter.config.SessionNearCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带本地近缓存的 session 仓库，包装 RedisIndexedSessionRepository（S 为它的 RedisSession，该类型不是 public 的）
+ * 读：本地缓存 session 快照（短 TTL），未命中才从 Redis 读取
+ * 写：只有属性变化或需要续期时才写回 Redis；属性变化、删除 session 时通过 Redis 发布订阅通知所有节点删除本地缓存
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Slf4j
+public class NearCacheSessionRepository<S extends Session> implements FindByIndexNameSessionRepository<Session>, MessageListener {
+
+    /**
+     * 失效通知频道，消息内容为 节点 id:sessionId
+     */
+    public static final String INVALIDATE_CHANNEL = "usercenter:session:invalidate";
+
+    private final FindByIndexNameSessionRepository<S> delegate;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Duration touchInterval;
+
+    /**
+     * 本节点 id，收到自己发出的通知时跳过
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<String, MapSession> cache;
+
+    public NearCacheSessionRepository(FindByIndexNameSessionRepository<S> delegate, StringRedisTemplate stringRedisTemplate,
+                                      SessionNearCacheProperties properties) {
+        this.delegate = delegate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.touchInterval = Duration.ofSeconds(properties.getTouchIntervalSeconds());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtlSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public Session createSession() {
+        return delegate.createSession();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void save(Session session) {
+        if (session instanceof NearCacheSession) {
+            saveNearCacheSession((NearCacheSession) session);
+            return;
+        }
+        /* 新建的 session（由 createSession 返回），其他节点不可能缓存过，不用通知 */
+        S redisSession = (S) session;
+        delegate.save(redisSession);
+        cache.put(redisSession.getId(), new MapSession(redisSession));
+    }
+
+    @Override
+    public Session findById(String id) {
+        MapSession snapshot = cache.getIfPresent(id);
+        if (snapshot != null && snapshot.isExpired()) {
+            cache.invalidate(id);
+            snapshot = null;
+        }
+        if (snapshot == null) {
+            S redisSession = delegate.findById(id);
+            if (redisSession == null) {
+                return null;
+            }
+            snapshot = new MapSession(redisSession);
+            cache.put(id, snapshot);
+        }
+        /* 每次返回副本，请求内的修改在 save 之前不影响缓存 */
+        return new NearCacheSession(this, new MapSession(snapshot));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+        cache.invalidate(id);
+        publishInvalidation(id);
+    }
+
+    @Override
+    public Map<String, Session> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, S> redisSessions = delegate.findByIndexNameAndIndexValue(indexName, indexValue);
+        Map<String, Session> sessions = new HashMap<>(redisSessions.size() * 2);
+        /* 包装后修改属性再 save 时会通知其他节点 */
+        redisSessions.forEach((id, redisSession) -> sessions.put(id, new NearCacheSession(this, new MapSession(redisSession))));
+        return sessions;
+    }
+
+    /**
+     * 收到其他节点的失效通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(':');
+        if (index < 0 || nodeId.equals(body.substring(0, index))) {
+            return;
+        }
+        cache.invalidate(body.substring(index + 1));
+    }
+
+    /**
+     * 本地缓存的 session 数
+     *
+     * @return
+     */
+    public long localSize() {
+        return cache.estimatedSize();
+    }
+
+    private void saveNearCacheSession(NearCacheSession session) {
+        String id = session.getId();
+        boolean dirty = session.isDirty();
+        /* 续期间隔不超过过期时间的一半 */
+        Duration interval = touchInterval;
+        Duration halfMaxInactiveInterval = session.getMaxInactiveInterval().dividedBy(2);
+        if (!halfMaxInactiveInterval.isNegative() && halfMaxInactiveInterval.compareTo(interval) < 0) {
+            interval = halfMaxInactiveInterval;
+        }
+        boolean touch = Duration.between(session.persistedLastAccessedTime, session.getLastAccessedTime()).compareTo(interval) >= 0;
+        if (!dirty && !touch) {
+            return;
+        }
+        S redisSession = delegate.findById(id);
+        if (redisSession == null) {
+            /* 已经在其他节点被删除或过期 */
+            cache.invalidate(id);
+            return;
+        }
+        session.changes.forEach(redisSession::setAttribute);
+        if (session.maxInactiveIntervalChanged) {
+            redisSession.setMaxInactiveInterval(session.getMaxInactiveInterval());
+        }
+        redisSession.setLastAccessedTime(session.getLastAccessedTime());
+        delegate.save(redisSession);
+        cache.put(id, new MapSession(redisSession));
+        if (dirty) {
+            publishInvalidation(id);
+        }
+    }
+
+    /**
+     * 在 Redis 中修改 session id
+     *
+     * @param oldId 原 id
+     * @return 新 id，session 已不存在时返回 null
+     */
+    private String changeSessionId(String oldId) {
+        S redisSession = delegate.findById(oldId);
+        if (redisSession == null) {
+            return null;
+        }
+        String newId = redisSession.changeSessionId();
+        delegate.save(redisSession);
+        cache.invalidate(oldId);
+        publishInvalidation(oldId);
+        return newId;
+    }
+
+    private void publishInvalidation(String id) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, nodeId + ":" + id);
+        } catch (Exception e) {
+            /* 通知失败时其他节点最多读到 ttl 秒的旧数据 */
+            log.warn("publish session invalidation failed, sessionId: {}", id, e);
+        }
+    }
+
+    /**
+     * 近缓存返回的 session：读写本地快照，记录属性修改，save 时再写回 Redis
+     */
+    private static final class NearCacheSession implements Session {
+
+        private final NearCacheSessionRepository<?> repository;
+
+        private final MapSession session;
+
+        /**
+         * Redis 中保存的最后访问时间
+         */
+        private final Instant persistedLastAccessedTime;
+
+        /**
+         * 修改过的属性，值为 null 表示删除
+         */
+        private final Map<String, Object> changes = new HashMap<>();
+
+        private boolean maxInactiveIntervalChanged;
+
+        private NearCacheSession(NearCacheSessionRepository<?> repository, MapSession session) {
+            this.repository = repository;
+            this.session = session;
+            this.persistedLastAccessedTime = session.getLastAccessedTime();
+        }
+
+        private boolean isDirty() {
+            return !changes.isEmpty() || maxInactiveIntervalChanged;
+        }
+
+        @Override
+        public String getId() {
+            return session.getId();
+        }
+
+        /**
+         * 直接在 Redis 中修改 id（防止会话固定攻击时调用）
+         */
+        @Override
+        public String changeSessionId() {
+            String newId = repository.changeSessionId(session.getId());
+            if (newId == null) {
+                return session.changeSessionId();
+            }
+            session.setId(newId);
+            return newId;
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return session.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return session.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            session.setAttribute(attributeName, attributeValue);
+            changes.put(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            session.removeAttribute(attributeName);
+            changes.put(attributeName, null);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return session.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            session.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return session.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (!interval.equals(session.getMaxInactiveInterval())) {
+                maxInactiveIntervalChanged = true;
+            }
+            session.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return session.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return session.isExpired();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.yupi.usercenter.auth;
+
+import com.yupi.usercenter.annotation.RequireRole;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.manager.LoginStateManager;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.yupi.usercenter.contant.UserConstant.ADMIN_ROLE;
+
+/**
+ * 校验 @RequireRole：未登录抛出 NOT_LOGIN，角色不符抛出 NO_AUTH
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+public class RequireRoleInterceptor implements HandlerInterceptor {
+
+    @Resource
+    private LoginStateManager loginStateManager;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        /* 方法上的注解优先于类上的 */
+        RequireRole requireRole = handlerMethod.getMethodAnnotation(RequireRole.class);
+        if (requireRole == null) {
+            requireRole = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequireRole.class);
+        }
+        if (requireRole == null) {
+            return true;
+        }
+        UserPrincipal principal = loginStateManager.getPrincipal(request);
+        if (principal == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        if (principal.getUserRole() != requireRole.value()) {
+            if (requireRole.value() == ADMIN_ROLE) {
+                throw new BusinessException(ErrorCode.NO_AUTH, "缺少管理员权限");
+            }
+            throw new BusinessException(ErrorCode.NO_AUTH);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.yupi.usercenter.auth;
+
+import lombok.Value;
+
+/**
+ * 令牌内容
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Value
+public class TokenClaims {
+
+    /**
+     * 令牌类型
+     */
+    TokenType type;
+
+    /**
+     * 令牌 id（随机数），加入黑名单时使用
+     */
+    long tokenId;
+
+    /**
+     * 登录态
+     */
+    UserPrincipal principal;
+
+    /**
+     * 过期时间（秒级时间戳）
+     */
+    long expiresAt;
+}
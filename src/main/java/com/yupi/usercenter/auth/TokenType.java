@@ -0,0 +1,19 @@
+package com.yupi.usercenter.auth;
+
+/**
+ * 令牌类型
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public enum TokenType {
+
+    /**
+     * 访问令牌：每次请求携带，只做本地签名校验
+     */
+    ACCESS,
+
+    /**
+     * 刷新令牌：只用于换取新令牌，换取时检查 Redis 黑名单
+     */
+    REFRESH
+}
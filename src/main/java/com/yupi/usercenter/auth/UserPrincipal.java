@@ -0,0 +1,51 @@
+package com.yupi.usercenter.auth;
+
+import com.yupi.usercenter.model.domain.User;
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * 登录态（保存在 session 中的当前用户）
+ * 只保存鉴权需要的字段，其余用户信息按 id 从缓存 / 数据库读取
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Value
+public class UserPrincipal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户 id
+     */
+    long id;
+
+    /**
+     * 用户角色 0 - 普通用户 1 - 管理员
+     */
+    int userRole;
+
+    /**
+     * 状态 0 - 正常
+     */
+    int userStatus;
+
+    /**
+     * 版本戳（登录时用户的版本号 user.version），用于判断登录态是否落后于用户数据
+     */
+    long version;
+
+    /**
+     * 由用户构造登录态
+     *
+     * @param user 用户
+     * @return
+     */
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(),
+                user.getUserRole() == null ? 0 : user.getUserRole(),
+                user.getUserStatus() == null ? 0 : user.getUserStatus(),
+                user.getVersion() == null ? 0 : user.getVersion());
+    }
+}
@@ -0,0 +1,96 @@
+package com.yupi.usercenter.auth;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Spring Session 的 Redis 序列化器
+ * 登录态和 session 自带的 Long / Integer / String 属性用一个类型字节 + 定长二进制保存（UserPrincipal 25 字节），
+ * 其他对象仍用 JDK 序列化；JDK 序列化的数据以 0xAC 开头，不会与类型字节冲突，升级前写入的 session 可以照常读取
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserPrincipalRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte TYPE_USER_PRINCIPAL = 1;
+
+    private static final byte TYPE_LONG = 2;
+
+    private static final byte TYPE_INTEGER = 3;
+
+    private static final byte TYPE_STRING = 4;
+
+    /**
+     * JDK 序列化流的第一个字节（STREAM_MAGIC 0xACED）
+     */
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private final SerializingConverter serializingConverter = new SerializingConverter();
+
+    private final DeserializingConverter deserializingConverter = new DeserializingConverter();
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY_ARRAY;
+        }
+        if (value instanceof UserPrincipal) {
+            UserPrincipal principal = (UserPrincipal) value;
+            return ByteBuffer.allocate(1 + 8 + 4 + 4 + 8)
+                    .put(TYPE_USER_PRINCIPAL)
+                    .putLong(principal.getId())
+                    .putInt(principal.getUserRole())
+                    .putInt(principal.getUserStatus())
+                    .putLong(principal.getVersion())
+                    .array();
+        }
+        if (value instanceof Long) {
+            return ByteBuffer.allocate(1 + 8).put(TYPE_LONG).putLong((Long) value).array();
+        }
+        if (value instanceof Integer) {
+            return ByteBuffer.allocate(1 + 4).put(TYPE_INTEGER).putInt((Integer) value).array();
+        }
+        if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(1 + bytes.length).put(TYPE_STRING).put(bytes).array();
+        }
+        try {
+            return serializingConverter.convert(value);
+        } catch (Exception e) {
+            throw new SerializationException("Cannot serialize", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        switch (bytes[0]) {
+            case TYPE_USER_PRINCIPAL:
+                return new UserPrincipal(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getLong());
+            case TYPE_LONG:
+                return buffer.getLong();
+            case TYPE_INTEGER:
+                return buffer.getInt();
+            case TYPE_STRING:
+                return new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+            case JDK_STREAM_MAGIC:
+                try {
+                    return deserializingConverter.convert(bytes);
+                } catch (Exception e) {
+                    throw new SerializationException("Cannot deserialize", e);
+                }
+            default:
+                throw new SerializationException("Unknown type: " + bytes[0]);
+        }
+    }
+}
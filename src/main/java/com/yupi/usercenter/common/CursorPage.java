@@ -0,0 +1,77 @@
+package com.yupi.usercenter.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果（按 id 升序，下一页传 afterId = nextCursor）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标（当前页最后一条记录的 id），没有下一页时为 null
+     */
+    private Long nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 由多查一条的结果构造分页（records 最多 pageSize + 1 条，且按 id 升序）
+     *
+     * @param records  查询结果
+     * @param pageSize 每页条数
+     * @param idGetter 取 id 的方法
+     * @param <T>
+     * @return
+     */
+    public static <T> CursorPage<T> of(List<T> records, int pageSize, Function<T, Long> idGetter) {
+        CursorPage<T> page = new CursorPage<>();
+        boolean hasMore = records.size() > pageSize;
+        List<T> pageRecords = hasMore ? new ArrayList<>(records.subList(0, pageSize)) : records;
+        page.setRecords(pageRecords);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(idGetter.apply(pageRecords.get(pageRecords.size() - 1)));
+        }
+        return page;
+    }
+
+    /**
+     * 由多查一条的 id 列表构造分页：游标和是否有下一页按 id 计算，只查询当前页的 id
+     * 个别 id 查不到记录（索引比数据新、从库延迟）时只是本页少一条，不会提前结束翻页
+     *
+     * @param idList   id 查询结果（最多 pageSize + 1 个，且升序）
+     * @param pageSize 每页条数
+     * @param loader   按 id 查询记录的方法
+     * @param <T>
+     * @return
+     */
+    public static <T> CursorPage<T> ofIds(List<Long> idList, int pageSize, Function<List<Long>, List<T>> loader) {
+        CursorPage<T> page = new CursorPage<>();
+        boolean hasMore = idList.size() > pageSize;
+        List<Long> pageIdList = hasMore ? idList.subList(0, pageSize) : idList;
+        page.setRecords(loader.apply(pageIdList));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(pageIdList.get(pageIdList.size() - 1));
+        }
+        return page;
+    }
+}
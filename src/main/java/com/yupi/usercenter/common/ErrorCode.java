@@ -1,5 +1,7 @@
 package com.yupi.usercenter.common;
 
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 错误码
@@ -15,8 +17,21 @@ public enum ErrorCode {
     NULL_ERROR(40001, "请求数据为空", ""),
     NOT_LOGIN(40100, "未登录", ""),
     NO_AUTH(40101, "无权限", ""),
+    CONFLICT(40900, "数据已被修改", ""),
+    TOO_MANY_REQUEST(42900, "请求过于频繁", ""),
     SYSTEM_ERROR(50000, "系统内部异常", "");
 
+    /**
+     * 按状态码查找
+     */
+    private static final Map<Integer, ErrorCode> CODE_MAP = new HashMap<>();
+
+    static {
+        for (ErrorCode errorCode : values()) {
+            CODE_MAP.put(errorCode.code, errorCode);
+        }
+    }
+
     private final int code;
 
     /**
@@ -47,4 +62,14 @@ public enum ErrorCode {
     public String getDescription() {
         return description;
     }
+
+    /**
+     * 根据状态码获取错误码
+     *
+     * @param code 状态码
+     * @return 没有对应的错误码时返回 null
+     */
+    public static ErrorCode getByCode(int code) {
+        return CODE_MAP.get(code);
+    }
 }
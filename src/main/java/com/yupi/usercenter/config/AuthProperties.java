@@ -0,0 +1,45 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 登录态配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.auth")
+@Data
+public class AuthProperties {
+
+    /**
+     * 登录态保存方式：session - 保存在 session 中（Redis）；token - 签名令牌，校验时不访问 Redis
+     */
+    private String mode = "session";
+
+    /**
+     * 令牌签名密钥（HMAC-SHA256），token 模式下必填且不少于 32 字节，所有节点必须一致
+     */
+    private String tokenSecret;
+
+    /**
+     * 访问令牌有效期（秒），过期前角色、状态的变化不会生效
+     */
+    private long accessTokenTtlSeconds = 900;
+
+    /**
+     * 刷新令牌有效期（秒）
+     */
+    private long refreshTokenTtlSeconds = 604800;
+
+    /**
+     * 是否为 token 模式
+     *
+     * @return
+     */
+    public boolean isTokenMode() {
+        return "token".equalsIgnoreCase(mode);
+    }
+}
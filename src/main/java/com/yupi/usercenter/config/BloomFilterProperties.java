@@ -0,0 +1,46 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 布隆过滤器配置（注册时账号 / 星球编号查重预判）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.bloom")
+@Data
+public class BloomFilterProperties {
+
+    /**
+     * 是否启用，关闭后每次注册都查数据库
+     */
+    private boolean enabled = true;
+
+    /**
+     * 首层容量（预计元素个数），超过后新开一层
+     */
+    private long initialCapacity = 1000000;
+
+    /**
+     * 首层误判率
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * 每层容量相对上一层的倍数
+     */
+    private int growthFactor = 2;
+
+    /**
+     * 每层误判率相对上一层的比例，总误判率不超过 falsePositiveRate / (1 - tighteningRatio)
+     */
+    private double tighteningRatio = 0.5;
+
+    /**
+     * 定时重建的 cron 表达式（清掉已删除用户、重新按数据量分层）
+     */
+    private String rebuildCron = "0 0 4 * * ?";
+}
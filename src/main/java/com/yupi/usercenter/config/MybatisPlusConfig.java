@@ -0,0 +1,27 @@
+package com.yupi.usercenter.config;
+
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis-Plus 配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+public class MybatisPlusConfig {
+
+    /**
+     * 乐观锁：带 @Version 字段更新时追加 where version = ?，并把 version 加 1
+     *
+     * @return
+     */
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new OptimisticLockerInnerInterceptor());
+        return interceptor;
+    }
+}
@@ -0,0 +1,75 @@
+package com.yupi.usercenter.config;
+
+import com.yupi.usercenter.auth.NearCacheSessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.session.RedisSessionProperties;
+import org.springframework.boot.autoconfigure.session.SessionProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.data.redis.RedisIndexedSessionRepository;
+import org.springframework.session.data.redis.config.annotation.web.http.RedisHttpSessionConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Session 本地近缓存配置：用 @Primary 的 NearCacheSessionRepository 替换 SessionRepositoryFilter 使用的仓库
+ * 容器中有 SessionRepository 时 Spring Boot 不再自动配置 Redis session，所以这里继承 RedisHttpSessionConfiguration 自己创建，
+ * 并按 Spring Boot 的方式读取 spring.session.* 配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConditionalOnExpression("'${spring.session.store-type:}' == 'redis' and ${usercenter.session.near-cache.enabled:true}")
+@EnableConfigurationProperties(RedisSessionProperties.class)
+public class NearCacheSessionConfig extends RedisHttpSessionConfiguration {
+
+    @Autowired
+    public void customize(SessionProperties sessionProperties, RedisSessionProperties redisSessionProperties,
+                          ServerProperties serverProperties) {
+        Duration timeout = sessionProperties.determineTimeout(() -> serverProperties.getServlet().getSession().getTimeout());
+        if (timeout != null) {
+            setMaxInactiveIntervalInSeconds((int) timeout.getSeconds());
+        }
+        setRedisNamespace(redisSessionProperties.getNamespace());
+        setFlushMode(redisSessionProperties.getFlushMode());
+        setSaveMode(redisSessionProperties.getSaveMode());
+        setCleanupCron(redisSessionProperties.getCleanupCron());
+    }
+
+    /**
+     * 同时在共用的监听容器上订阅其他节点的 session 失效通知
+     */
+    @Bean
+    @Primary
+    public NearCacheSessionRepository<?> nearCacheSessionRepository(RedisIndexedSessionRepository sessionRepository,
+                                                                    StringRedisTemplate stringRedisTemplate,
+                                                                    SessionNearCacheProperties sessionNearCacheProperties,
+                                                                    MeterRegistry meterRegistry,
+                                                                    @Qualifier("redisMessageListenerContainer")
+                                                                    RedisMessageListenerContainer redisMessageListenerContainer) {
+        NearCacheSessionRepository<?> repository = create(sessionRepository, stringRedisTemplate, sessionNearCacheProperties);
+        /* 本地缓存的 session 数 */
+        Gauge.builder("usercenter.session.near.cache.size", repository, NearCacheSessionRepository::localSize).register(meterRegistry);
+        redisMessageListenerContainer.addMessageListener(repository, new ChannelTopic(NearCacheSessionRepository.INVALIDATE_CHANNEL));
+        return repository;
+    }
+
+    /* RedisIndexedSessionRepository 的 session 类型不是 public 的，通过类型参数传递 */
+    private static <S extends Session> NearCacheSessionRepository<S> create(FindByIndexNameSessionRepository<S> sessionRepository,
+                                                                           StringRedisTemplate stringRedisTemplate,
+                                                                           SessionNearCacheProperties sessionNearCacheProperties) {
+        return new NearCacheSessionRepository<>(sessionRepository, stringRedisTemplate, sessionNearCacheProperties);
+    }
+}
@@ -0,0 +1,52 @@
+package com.yupi.usercenter.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.usercenter.ratelimit.RateLimitFilter;
+import com.yupi.usercenter.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+
+/**
+ * 接口限流配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "usercenter.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties rateLimitProperties, StringRedisTemplate stringRedisTemplate,
+                                   MeterRegistry meterRegistry) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/rate_limit.lua"));
+        script.setResultType(Long.class);
+        RateLimiter rateLimiter = new RateLimiter(rateLimitProperties,
+                rateLimitProperties.isRedisEnabled() ? stringRedisTemplate : null, script);
+        Gauge.builder("usercenter.rate.limit.local.size", rateLimiter, RateLimiter::localSize).register(meterRegistry);
+        Gauge.builder("usercenter.rate.limit.redis.errors", rateLimiter, RateLimiter::getRedisErrorCount).register(meterRegistry);
+        return rateLimiter;
+    }
+
+    /**
+     * 在 SessionRepositoryFilter 之前执行，被拒绝的请求不读写 session
+     *
+     * @return
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties rateLimitProperties, RateLimiter rateLimiter,
+                                                                   ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimitProperties, rateLimiter, objectMapper, meterRegistry));
+        registration.setOrder(SessionRepositoryFilter.DEFAULT_ORDER - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,88 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 接口限流配置（令牌桶），按接口分别配置按 IP、按账号的限额
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否同时在 Redis 中限流（所有节点共享限额）；关闭时只在本节点限流
+     */
+    private boolean redisEnabled = true;
+
+    /**
+     * 本地最多保存的令牌桶个数（长时间没有请求的桶会被淘汰，淘汰后相当于满桶）
+     */
+    private long localMaxKeys = 100000;
+
+    /**
+     * 本地令牌桶空闲多少秒后淘汰（应不小于桶从空到满的时间）
+     */
+    private long localIdleSeconds = 600;
+
+    /**
+     * 按账号限流的接口允许的最大请求体字节数，超过时直接拒绝（HTTP 413）
+     */
+    private int maxBodyBytes = 4096;
+
+    /**
+     * 限流规则，每个接口一条
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * 一个接口的限流规则（只限制 POST 请求）
+     */
+    @Data
+    public static class Rule {
+
+        /**
+         * 接口路径（不含 context-path），如 /user/login
+         */
+        private String path;
+
+        /**
+         * 按客户端 IP 的限额，为空时不限制
+         */
+        private Limit ip;
+
+        /**
+         * 按请求体中账号（userAccount）的限额，为空时不限制
+         */
+        private Limit account;
+    }
+
+    /**
+     * 令牌桶限额
+     */
+    @Data
+    public static class Limit {
+
+        /**
+         * 桶容量（允许的突发请求数）
+         */
+        private int capacity;
+
+        /**
+         * 每分钟补充的令牌数（长期平均速率）
+         */
+        private double refillPerMinute;
+    }
+}
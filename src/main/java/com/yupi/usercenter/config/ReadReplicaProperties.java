@@ -0,0 +1,64 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置：spring.datasource 为主库，replicas 为从库
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.datasource.read-replica")
+@Data
+public class ReadReplicaProperties {
+
+    /**
+     * 是否启用读写分离（关闭时只使用 spring.datasource）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 从库列表，轮询使用健康的从库
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 从库每个连接池的最大连接数
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * 从库获取连接的超时毫秒数（超时即视为从库不可用，回退到主库）
+     */
+    private long connectionTimeoutMillis = 1000;
+
+    /**
+     * 检查从库是否恢复的间隔毫秒数
+     */
+    private long healthCheckIntervalMillis = 5000;
+
+    /**
+     * 检查从库时校验连接的超时秒数
+     */
+    private int healthCheckTimeoutSeconds = 1;
+
+    /**
+     * 从库连接配置，用户名、密码、驱动为空时使用主库的配置
+     */
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+    }
+}
@@ -0,0 +1,73 @@
+package com.yupi.usercenter.config;
+
+import com.yupi.usercenter.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离数据源：spring.datasource 为主库，usercenter.datasource.read-replica.replicas 为从库
+ * 定义了 DataSource 后 Spring Boot 不再自动创建数据源，MyBatis 和事务管理器都使用这里的路由数据源
+ * 路由数据源不是 HikariDataSource，Spring Boot 不会为连接池注册指标，这里为主库和每个从库的连接池分别注册（hikaricp_*，按 pool 标签区分）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "usercenter.datasource.read-replica", name = "enabled", havingValue = "true")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ReadReplicaProperties readReplicaProperties,
+                                                 ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        bindMetrics(primary, meterRegistry);
+        List<DataSource> replicas = new ArrayList<>();
+        List<ReadReplicaProperties.Replica> replicaConfigs = readReplicaProperties.getReplicas();
+        for (int i = 0; i < replicaConfigs.size(); i++) {
+            replicas.add(createReplica(i, replicaConfigs.get(i), dataSourceProperties, readReplicaProperties, meterRegistry));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, readReplicaProperties.getHealthCheckTimeoutSeconds());
+    }
+
+    /**
+     * 注册连接池指标（必须在连接池启动之前设置）
+     */
+    private void bindMetrics(HikariConfig config, MeterRegistry meterRegistry) {
+        if (meterRegistry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+    }
+
+    private HikariDataSource createReplica(int index, ReadReplicaProperties.Replica replica, DataSourceProperties dataSourceProperties,
+                                           ReadReplicaProperties readReplicaProperties, MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica-" + index);
+        config.setJdbcUrl(replica.getUrl());
+        config.setUsername(StringUtils.defaultIfEmpty(replica.getUsername(), dataSourceProperties.determineUsername()));
+        config.setPassword(StringUtils.defaultIfEmpty(replica.getPassword(), dataSourceProperties.determinePassword()));
+        config.setDriverClassName(StringUtils.defaultIfEmpty(replica.getDriverClassName(), dataSourceProperties.determineDriverClassName()));
+        config.setReadOnly(true);
+        config.setMaximumPoolSize(readReplicaProperties.getMaximumPoolSize());
+        config.setConnectionTimeout(readReplicaProperties.getConnectionTimeoutMillis());
+        /* 启动时从库不可用也不影响启动，使用时回退到主库 */
+        config.setInitializationFailTimeout(-1);
+        bindMetrics(config, meterRegistry);
+        /* 立即启动连接池，从库的连接池指标从启动开始就有（不可用的从库连接数为 0） */
+        return new HikariDataSource(config);
+    }
+}
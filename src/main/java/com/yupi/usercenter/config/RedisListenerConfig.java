@@ -0,0 +1,28 @@
+package com.yupi.usercenter.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 订阅配置：用户缓存、内存索引、session 近缓存的失效通知共用一个监听容器（一个订阅连接、一个监听线程池）
+ * 各配置通过 addMessageListener 注册自己的频道；没有注册任何频道时容器不会建立订阅连接
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    /**
+     * Spring Session 另有自己的 springSessionRedisMessageListenerContainer，按名称注入这个 bean
+     *
+     * @return
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+}
@@ -0,0 +1,25 @@
+package com.yupi.usercenter.config;
+
+import com.yupi.usercenter.auth.UserPrincipalRedisSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Session 配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+public class SessionConfig {
+
+    /**
+     * Spring Session 按这个 bean 名称查找 session 属性的序列化器（默认是 JDK 序列化）
+     *
+     * @return
+     */
+    @Bean("springSessionDefaultRedisSerializer")
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
+        return new UserPrincipalRedisSerializer();
+    }
+}
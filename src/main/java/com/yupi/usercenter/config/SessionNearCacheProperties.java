@@ -0,0 +1,36 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Session 本地近缓存配置（只在 spring.session.store-type=redis 时生效）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.session.near-cache")
+@Data
+public class SessionNearCacheProperties {
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本地缓存最大 session 数
+     */
+    private long maxSize = 10000;
+
+    /**
+     * 本地缓存过期时间（秒），同一个 session 每个节点在这段时间内最多从 Redis 读一次
+     */
+    private long ttlSeconds = 5;
+
+    /**
+     * 只有访问时间变化时，最多每隔多少秒把 lastAccessedTime 写回 Redis（续期）
+     */
+    private long touchIntervalSeconds = 60;
+}
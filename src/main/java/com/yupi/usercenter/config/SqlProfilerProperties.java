@@ -0,0 +1,50 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL 统计配置（MyBatis 拦截器 SqlProfilerInterceptor）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.sql-profiler")
+@Data
+public class SqlProfilerProperties {
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 统计的 Mapper 命名空间（语句 id 前缀）
+     */
+    private List<String> namespaces = new ArrayList<>(Collections.singletonList("com.yupi.usercenter.mapper.UserMapper"));
+
+    /**
+     * 慢 SQL 阈值（毫秒）
+     */
+    private long slowThresholdMillis = 200;
+
+    /**
+     * 保留最近多少条慢 SQL
+     */
+    private int slowLogSize = 100;
+
+    /**
+     * 最多统计多少种 SQL（语句 id + SQL 文本），超过后新出现的 SQL 只按语句 id 合并统计
+     */
+    private int maxShapes = 1000;
+
+    /**
+     * 保留最近多少条请求内重复查询记录
+     */
+    private int repeatLogSize = 100;
+}
@@ -0,0 +1,41 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 已删除用户归档配置（逻辑删除超过保留期的用户移到 user_archive 表）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.archive")
+@Data
+public class UserArchiveProperties {
+
+    /**
+     * 是否启用定时归档
+     */
+    private boolean enabled = true;
+
+    /**
+     * 逻辑删除后保留在 user 表中的天数（按 updateTime 计算删除时间，删除后再修改该行会重新计算）
+     */
+    private int retentionDays = 30;
+
+    /**
+     * 每批归档的用户数（每批一个事务）
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 每归档一批后暂停的毫秒数，避免占满主从复制和数据库资源
+     */
+    private long batchIntervalMillis = 200;
+
+    /**
+     * 定时归档的 cron 表达式
+     */
+    private String cron = "0 0 3 * * ?";
+}
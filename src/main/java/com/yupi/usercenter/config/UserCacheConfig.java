@@ -0,0 +1,34 @@
+package com.yupi.usercenter.config;
+
+import com.yupi.usercenter.manager.UserCacheManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+/**
+ * 用户缓存配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "usercenter.cache.user", name = "broadcast-enabled", matchIfMissing = true)
+public class UserCacheConfig {
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private UserCacheManager userCacheManager;
+
+    /**
+     * 订阅其他节点的用户缓存失效通知
+     */
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(userCacheManager, new ChannelTopic(UserCacheManager.INVALIDATE_CHANNEL));
+    }
+}
@@ -0,0 +1,41 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户缓存配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.cache.user")
+@Data
+public class UserCacheProperties {
+
+    /**
+     * 本地缓存最大条数
+     */
+    private long localMaxSize = 10000;
+
+    /**
+     * 本地缓存过期时间（秒），失效通知丢失时本节点最多读到这么久的旧数据
+     */
+    private long localTtlSeconds = 30;
+
+    /**
+     * 是否启用 Redis 二级缓存
+     */
+    private boolean redisEnabled = true;
+
+    /**
+     * Redis 缓存过期时间（秒）
+     */
+    private long redisTtlSeconds = 600;
+
+    /**
+     * 修改、删除用户后是否通过 Redis 发布订阅通知其他节点删除本地缓存（单节点部署可以关闭）
+     */
+    private boolean broadcastEnabled = true;
+}
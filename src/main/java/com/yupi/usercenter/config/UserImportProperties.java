@@ -0,0 +1,26 @@
+package com.yupi.usercenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户批量导入配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "usercenter.import")
+@Data
+public class UserImportProperties {
+
+    /**
+     * 每批处理的行数（并行校验、IN 查重、批量插入都按批进行，每批一个事务）
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * 单次导入的最大行数，超过的部分不再读取
+     */
+    private int maxRows = 200000;
+}
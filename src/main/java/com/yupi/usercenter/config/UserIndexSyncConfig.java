@@ -0,0 +1,34 @@
+package com.yupi.usercenter.config;
+
+import com.yupi.usercenter.manager.UserIndexSyncManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+/**
+ * 用户内存索引同步配置
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "usercenter.index", name = "sync-enabled", matchIfMissing = true)
+public class UserIndexSyncConfig {
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private UserIndexSyncManager userIndexSyncManager;
+
+    /**
+     * 订阅其他节点的用户修改通知
+     */
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(userIndexSyncManager, new ChannelTopic(UserIndexSyncManager.INDEX_CHANNEL));
+    }
+}
@@ -1,12 +1,38 @@
 package com.yupi.usercenter.config;
 
+import com.yupi.usercenter.auth.LoginUserArgumentResolver;
+import com.yupi.usercenter.auth.RequireRoleInterceptor;
+import com.yupi.usercenter.contant.UserConstant;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import javax.annotation.Resource;
+import java.util.List;
+
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    @Resource
+    private LoginUserArgumentResolver loginUserArgumentResolver;
+
+    @Resource
+    private RequireRoleInterceptor requireRoleInterceptor;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        // 注入 @LoginUser 参数
+        resolvers.add(loginUserArgumentResolver);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 校验 @RequireRole
+        registry.addInterceptor(requireRoleInterceptor);
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         // 设置允许跨域的路径
@@ -19,6 +45,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 // 设置允许的方法
                 .allowedMethods("*")
+                // 令牌模式下登录、刷新接口在响应头中返回令牌，前端需要能读到
+                .exposedHeaders(UserConstant.ACCESS_TOKEN_HEADER, UserConstant.REFRESH_TOKEN_HEADER)
                 // 跨域允许时间
                 .maxAge(3600);
     }
@@ -0,0 +1,19 @@
+package com.yupi.usercenter.contant;
+
+/**
+ * 通用常量
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface CommonConstant {
+
+    /**
+     * 默认每页条数
+     */
+    int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * 每页最大条数
+     */
+    int MAX_PAGE_SIZE = 100;
+}
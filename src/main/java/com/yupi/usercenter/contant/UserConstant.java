@@ -13,6 +13,28 @@ public interface UserConstant {
      */
     String USER_LOGIN_STATE = "userLoginState";
 
+    //  ------- 令牌（usercenter.auth.mode=token） --------
+
+    /**
+     * 请求头：访问令牌（Bearer 令牌）
+     */
+    String AUTHORIZATION_HEADER = "Authorization";
+
+    /**
+     * 访问令牌前缀
+     */
+    String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * 响应头：登录、刷新后下发的访问令牌
+     */
+    String ACCESS_TOKEN_HEADER = "X-Access-Token";
+
+    /**
+     * 请求头 / 响应头：刷新令牌
+     */
+    String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
+
     //  ------- 权限 --------
 
     /**
@@ -0,0 +1,102 @@
+package com.yupi.usercenter.controller;
+
+import com.yupi.usercenter.annotation.RequireRole;
+import com.yupi.usercenter.common.BaseResponse;
+import com.yupi.usercenter.common.ResultUtils;
+import com.yupi.usercenter.manager.UserBloomFilterManager;
+import com.yupi.usercenter.manager.UserCacheManager;
+import com.yupi.usercenter.mapper.interceptor.SqlProfilerInterceptor;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.service.UserArchiveService;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.Map;
+
+import static com.yupi.usercenter.contant.UserConstant.ADMIN_ROLE;
+
+/**
+ * 管理接口（运行状态、统计信息、归档用户恢复）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@RestController
+@RequestMapping("/admin")
+@CrossOrigin
+@RequireRole(ADMIN_ROLE)
+public class AdminController {
+
+    @Resource
+    private UserCacheManager userCacheManager;
+
+    @Resource
+    private UserBloomFilterManager userBloomFilterManager;
+
+    @Resource
+    private SqlProfilerInterceptor sqlProfilerInterceptor;
+
+    @Resource
+    private UserArchiveService userArchiveService;
+
+    /**
+     * 用户缓存命中率统计
+     *
+     * @return
+     */
+    @GetMapping("/cache/stats")
+    public BaseResponse<Map<String, Object>> getCacheStats() {
+        return ResultUtils.success(userCacheManager.getStats());
+    }
+
+    /**
+     * 注册查重布隆过滤器统计（含估算误判率）
+     *
+     * @return
+     */
+    @GetMapping("/bloom/stats")
+    public BaseResponse<Map<String, Object>> getBloomFilterStats() {
+        return ResultUtils.success(userBloomFilterManager.getStats());
+    }
+
+    /**
+     * 手动重建注册查重布隆过滤器
+     *
+     * @return 是否执行了重建（其他节点正在重建时返回 false）
+     */
+    @PostMapping("/bloom/rebuild")
+    public BaseResponse<Boolean> rebuildBloomFilter() {
+        return ResultUtils.success(userBloomFilterManager.rebuild());
+    }
+
+    /**
+     * SQL 统计：各 SQL 的次数、耗时、行数、数据量，最近的慢 SQL 和请求内重复查询
+     *
+     * @return
+     */
+    @GetMapping("/sql/stats")
+    public BaseResponse<Map<String, Object>> getSqlStats() {
+        return ResultUtils.success(sqlProfilerInterceptor.getStats());
+    }
+
+    /**
+     * 清空 SQL 统计
+     *
+     * @return
+     */
+    @PostMapping("/sql/stats/reset")
+    public BaseResponse<Boolean> resetSqlStats() {
+        sqlProfilerInterceptor.reset();
+        return ResultUtils.success(true);
+    }
+
+    /**
+     * 从归档中恢复已删除的用户（恢复为未删除状态，并重新加入标签、用户名索引）
+     *
+     * @param id 用户 id
+     * @return 恢复后的用户
+     */
+    @PostMapping("/user/restore")
+    public BaseResponse<UserVO> restoreUser(@RequestParam long id) {
+        return ResultUtils.success(userArchiveService.restoreUser(id));
+    }
+}
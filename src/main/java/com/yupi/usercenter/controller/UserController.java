@@ -1,28 +1,38 @@
 package com.yupi.usercenter.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.fasterxml.jackson.databind.ser.Serializers;
+import com.yupi.usercenter.annotation.LoginUser;
+import com.yupi.usercenter.annotation.RequireRole;
+import com.yupi.usercenter.auth.UserPrincipal;
 import com.yupi.usercenter.common.BaseResponse;
+import com.yupi.usercenter.common.CursorPage;
 import com.yupi.usercenter.common.ErrorCode;
 import com.yupi.usercenter.common.ResultUtils;
 import com.yupi.usercenter.exception.BusinessException;
 import com.yupi.usercenter.model.domain.User;
 import com.yupi.usercenter.model.domain.request.UserLoginRequest;
 import com.yupi.usercenter.model.domain.request.UserRegisterRequest;
+import com.yupi.usercenter.model.domain.response.UserImportResult;
+import com.yupi.usercenter.model.enums.UserImportFormat;
+import com.yupi.usercenter.model.enums.UserValidationError;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.service.UserImportService;
 import com.yupi.usercenter.service.UserService;
+import com.yupi.usercenter.utils.UserValidator;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.yupi.usercenter.contant.UserConstant.ADMIN_ROLE;
-import static com.yupi.usercenter.contant.UserConstant.USER_LOGIN_STATE;
 
 /**
  * 用户接口
@@ -37,6 +47,9 @@ public class UserController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private UserImportService userImportService;
+
 
     /**
      * 用户注册
@@ -54,8 +67,8 @@ public class UserController {
         String userPassword = userRegisterRequest.getUserPassword();
         String checkPassword = userRegisterRequest.getCheckPassword();
         String planetCode = userRegisterRequest.getPlanetCode();
-        /* 判断是否为空 */
-        if (StringUtils.isAnyBlank(userAccount, userPassword, checkPassword, planetCode)) {
+        /* 判断是否为空（长度、特殊字符等由 userRegister 校验） */
+        if (UserValidator.validateRegister(userAccount, userPassword, checkPassword, planetCode) == UserValidationError.PARAMS_BLANK) {
             return null;
         }
         long result = userService.userRegister(userAccount, userPassword, checkPassword, planetCode);
@@ -68,19 +81,22 @@ public class UserController {
      *
      * @param userLoginRequest
      * @param request
+     * @param response 令牌模式下响应头 X-Access-Token、X-Refresh-Token 中返回令牌
      * @return
      */
     @PostMapping("/login")
-    public BaseResponse<User> userLogin(@RequestBody UserLoginRequest userLoginRequest, HttpServletRequest request) {
+    public BaseResponse<UserVO> userLogin(@RequestBody UserLoginRequest userLoginRequest, HttpServletRequest request,
+                                        HttpServletResponse response) {
         if (userLoginRequest == null) {
             return ResultUtils.error(ErrorCode.PARAMS_ERROR);
         }
         String userAccount = userLoginRequest.getUserAccount();
         String userPassword = userLoginRequest.getUserPassword();
-        if (StringUtils.isAnyBlank(userAccount, userPassword)) {
+        /* 长度、特殊字符不合法时由 userLogin 返回 null */
+        if (UserValidator.validateLogin(userAccount, userPassword) == UserValidationError.PARAMS_BLANK) {
             return ResultUtils.error(ErrorCode.PARAMS_ERROR);
         }
-        User user = userService.userLogin(userAccount, userPassword, request);
+        UserVO user = userService.userLogin(userAccount, userPassword, request, response);
         return ResultUtils.success(user);
     }
 
@@ -102,61 +118,94 @@ public class UserController {
 
 
     /**
-     * 获取当前用户
+     * 刷新令牌（令牌模式）：请求头 X-Refresh-Token 携带刷新令牌，新令牌在响应头中返回
      *
      * @param request
+     * @param response
      * @return
      */
-    @GetMapping("/current")
-    public BaseResponse<User> getCurrentUser(HttpServletRequest request) {
-        /* 获取对应session的用户 */
-        Object userObj = request.getSession().getAttribute(USER_LOGIN_STATE);
-        HttpSession session = request.getSession();
-        session.getId();
-        System.out.println("sessionId:" + session.getId());
-        User currentUser = (User) userObj;
-        if (currentUser == null) {
-            throw new BusinessException(ErrorCode.NOT_LOGIN);
-        }
-        long userId = currentUser.getId();
-        // TODO 校验用户是否合法
+    @PostMapping("/token/refresh")
+    public BaseResponse<Boolean> refreshToken(HttpServletRequest request, HttpServletResponse response) {
+        userService.refreshToken(request, response);
+        return ResultUtils.success(true);
+    }
+
 
-        /* getById是mybatis-Plus里面的方法 */
-        User user = userService.getById(userId);
-        /* 把查询出来的数据进行脱敏 */
-        User safetyUser = userService.getSafetyUser(user);
+    /**
+     * 获取当前用户
+     *
+     * @param principal 当前登录态（只有 id、角色等），未登录时抛出 NOT_LOGIN
+     * @return
+     */
+    @GetMapping("/current")
+    public BaseResponse<UserVO> getCurrentUser(@LoginUser UserPrincipal principal) {
+        long userId = principal.getId();
+        /* 先查本地 / Redis 缓存，未命中再查数据库，缓存的是脱敏后的用户 */
+        UserVO safetyUser = userService.getSafetyUserById(userId);
         return ResultUtils.success(safetyUser);
     }
 
 
     /**
-     * @Description: 用户搜索功能
+     * @Description: 用户搜索功能（游标分页）
      * @return:
      * @Author:  zcnovice
      * @date:  2025/6/26 下午9:04
      */
     @GetMapping("/search")
-    public BaseResponse<List<User>> searchUsers(String username, HttpServletRequest request) {
-        /*判断是不是管理员 */
-        if (!isAdmin(request)) {
-            throw new BusinessException(ErrorCode.NO_AUTH, "缺少管理员权限");
-        }
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        /* 检查字符串是否不为空，也不为NULL */
-        if (StringUtils.isNotBlank(username)) {
-            /* 模糊查询 */
-            queryWrapper.like("username", username);
+    @RequireRole(ADMIN_ROLE)
+    public BaseResponse<CursorPage<UserVO>> searchUsers(String username, Long afterId, Integer pageSize) {
+        CursorPage<UserVO> userPage = userService.searchUsers(username, afterId, pageSize);
+        return ResultUtils.success(userPage);
+    }
+
+
+    /**
+     * 导出用户（NDJSON，每行一个脱敏后的用户，流式写出）
+     *
+     * @param username 用户名或账号（子串匹配，与搜索相同），为空时导出全部
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping("/export")
+    @RequireRole(ADMIN_ROLE)
+    public void exportUsers(String username, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=users.ndjson");
+        userService.exportUsers(username, response.getOutputStream());
+    }
+
+
+    /**
+     * 批量导入用户（CSV 或 NDJSON）
+     * 可以直接把文件作为请求体上传（流式读取，不落盘），也可以用 multipart 的 file 字段上传
+     *
+     * @param format  csv / ndjson，为空时根据 Content-Type 判断
+     * @param file    multipart 上传的文件，为空时读取请求体
+     * @param request
+     * @return 导入结果（列出失败的行）
+     * @throws IOException
+     */
+    @PostMapping("/import")
+    @RequireRole(ADMIN_ROLE)
+    public BaseResponse<UserImportResult> importUsers(@RequestParam(required = false) String format,
+                                                      @RequestParam(required = false) MultipartFile file,
+                                                      HttpServletRequest request) throws IOException {
+        UserImportResult result;
+        if (file != null) {
+            String fileFormat = format != null ? format : StringUtils.substringAfterLast(file.getOriginalFilename(), ".");
+            try (InputStream inputStream = file.getInputStream()) {
+                result = userImportService.importUsers(inputStream, UserImportFormat.of(fileFormat, file.getContentType()));
+            }
+        } else {
+            result = userImportService.importUsers(request.getInputStream(), UserImportFormat.of(format, request.getContentType()));
         }
-        /* Mybatis-Plus查询所有信息 */
-        List<User> userList = userService.list(queryWrapper);
-        /* 脱敏 */
-        List<User> list = userList.stream().map(user -> userService.getSafetyUser(user)).collect(Collectors.toList());
-        return ResultUtils.success(list);
+        return ResultUtils.success(result);
     }
 
 
     /**
-     * @Description: 查询标签
+     * @Description: 查询标签（游标分页）
      * @return:
      * @Author:  zcnovice
      * @date:  2025/6/30 下午12:06
@@ -164,24 +213,24 @@ public class UserController {
     /* required = false  --  表示这个参数是可选的 */
     /* List<String> tagNameList 是由 Spring 自动解析的，属于 隐式反序列化 */
     @GetMapping("/search/tags")
-    public BaseResponse<List<User>> searchUsersTags(@RequestParam(required = false) List<String> tagNameList) {
+    public BaseResponse<CursorPage<UserVO>> searchUsersTags(@RequestParam(required = false) List<String> tagNameList,
+                                                          @RequestParam(required = false) Long afterId,
+                                                          @RequestParam(required = false) Integer pageSize) {
         /* 判断传过来的标签列表是否为空 */
         if (CollectionUtils.isEmpty(tagNameList)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
         /* 根据标签查询用户 */
-        List<User> userList = userService.searchUsersByTags(tagNameList);
-        return ResultUtils.success(userList);
+        CursorPage<UserVO> userPage = userService.searchUsersByTags(tagNameList, afterId, pageSize);
+        return ResultUtils.success(userPage);
     }
 
 
 
+    /* 删除也要判断用户是不是管理员 */
     @PostMapping("/delete")
-    public BaseResponse<Boolean> deleteUser(@RequestBody long id, HttpServletRequest request) {
-        /* 删除也要判断用户是不是管理员 */
-        if (!isAdmin(request)) {
-            throw new BusinessException(ErrorCode.NO_AUTH);
-        }
+    @RequireRole(ADMIN_ROLE)
+    public BaseResponse<Boolean> deleteUser(@RequestBody long id) {
         if (id <= 0) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
@@ -193,37 +242,20 @@ public class UserController {
 
     /**
      * 用户信息修改
-     * @param user 当前要更新的用户信息
+     * @param user 当前要更新的用户信息（version 为读取时的版本号，已被他人修改时返回 CONFLICT）
+     * @param loginUser 当前登录的用户信息，未登录时抛出 NOT_LOGIN
      * @return
      */
     @PostMapping("/update")
-    public BaseResponse<Integer> updateUser(@RequestBody User user, HttpServletRequest request) {
-        /* 判断用户是不是管理员 */
+    public BaseResponse<Integer> updateUser(@RequestBody User user, @LoginUser UserPrincipal loginUser) {
         if (user == null) {
             throw new BusinessException(ErrorCode.NULL_ERROR);
         }
-        // 鉴权
-        /* 获取当前登录的用户信息（loginUser -- 就是当前登录的用户） */
-        User loginUser = userService.getLoginInUser(request);
+        /* 管理员可以修改任意用户，普通用户只能修改自己（在 updateUser 中判断） */
         int result = userService.updateUser(user, loginUser);
         return ResultUtils.success(result);
     }
 
 
 
-    /**
-     * 是否为管理员
-     *
-     * @param request
-     * @return
-     */
-    private boolean isAdmin(HttpServletRequest request) {
-        // 仅管理员可查询
-        Object userObj = request.getSession().getAttribute(USER_LOGIN_STATE);
-        User user = (User) userObj;
-        return user != null && user.getUserRole() == ADMIN_ROLE;
-    }
-
-
-
 }
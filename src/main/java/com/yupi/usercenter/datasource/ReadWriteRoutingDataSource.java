@@ -0,0 +1,189 @@
+package com.yupi.usercenter.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离数据源：默认使用主库，当前线程标记为读从库（setReadReplica）时轮询使用健康的从库
+ * 从库获取连接失败时标记为不健康并回退到主库，之后由 checkReplicas 定时检查，恢复后重新使用
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    /**
+     * 当前线程是否读从库
+     */
+    private static final ThreadLocal<Boolean> READ_REPLICA = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<ReplicaHolder> replicas = new ArrayList<>();
+
+    private final int healthCheckTimeoutSeconds;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, int healthCheckTimeoutSeconds) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new ReplicaHolder(i, replicas.get(i)));
+        }
+        this.healthCheckTimeoutSeconds = healthCheckTimeoutSeconds;
+    }
+
+    /**
+     * 设置当前线程是否读从库
+     *
+     * @param readReplica 是否读从库
+     * @return 设置前的值，调用结束后用它恢复
+     */
+    public static boolean setReadReplica(boolean readReplica) {
+        boolean previous = isReadReplica();
+        if (readReplica) {
+            READ_REPLICA.set(Boolean.TRUE);
+        } else {
+            READ_REPLICA.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * 当前线程是否读从库
+     *
+     * @return
+     */
+    public static boolean isReadReplica() {
+        return Boolean.TRUE.equals(READ_REPLICA.get());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isReadReplica()) {
+            for (ReplicaHolder replica : nextReplicas()) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    markUnhealthy(replica, e);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (isReadReplica()) {
+            for (ReplicaHolder replica : nextReplicas()) {
+                try {
+                    return replica.dataSource.getConnection(username, password);
+                } catch (SQLException e) {
+                    markUnhealthy(replica, e);
+                }
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 检查不健康的从库，能获取到有效连接时恢复使用
+     */
+    public void checkReplicas() {
+        for (ReplicaHolder replica : replicas) {
+            if (replica.healthy) {
+                continue;
+            }
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    replica.healthy = true;
+                    log.info("read replica {} recovered", replica.index);
+                }
+            } catch (SQLException e) {
+                log.debug("read replica {} still unavailable: {}", replica.index, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 健康的从库数
+     *
+     * @return
+     */
+    public int healthyReplicaCount() {
+        int count = 0;
+        for (ReplicaHolder replica : replicas) {
+            if (replica.healthy) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按轮询顺序返回健康的从库（第一个失败时依次尝试下一个）
+     */
+    private List<ReplicaHolder> nextReplicas() {
+        int size = replicas.size();
+        List<ReplicaHolder> healthyReplicas = new ArrayList<>(size);
+        if (size == 0) {
+            return healthyReplicas;
+        }
+        int start = Math.floorMod(counter.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaHolder replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                healthyReplicas.add(replica);
+            }
+        }
+        return healthyReplicas;
+    }
+
+    private void markUnhealthy(ReplicaHolder replica, SQLException e) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("read replica {} unavailable, fall back to primary", replica.index, e);
+        }
+    }
+
+    /**
+     * 关闭主库和从库的连接池
+     */
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("close data source failed", e);
+            }
+        }
+    }
+
+    private static final class ReplicaHolder {
+
+        private final int index;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private ReplicaHolder(int index, DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+        }
+    }
+}
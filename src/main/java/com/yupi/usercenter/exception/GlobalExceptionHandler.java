@@ -3,10 +3,13 @@ package com.yupi.usercenter.exception;
 import com.yupi.usercenter.common.BaseResponse;
 import com.yupi.usercenter.common.ErrorCode;
 import com.yupi.usercenter.common.ResultUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.annotation.Resource;
+
 /**
  * 全局异常处理器
  *
@@ -17,9 +20,17 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    @Resource
+    private MeterRegistry meterRegistry;
+
     @ExceptionHandler(BusinessException.class)
     public BaseResponse<?> businessExceptionHandler(BusinessException e) {
         log.error("businessException: " + e.getMessage(), e);
+        /* 按错误码统计业务异常次数 */
+        ErrorCode errorCode = ErrorCode.getByCode(e.getCode());
+        meterRegistry.counter("usercenter.business.exception",
+                "code", String.valueOf(e.getCode()),
+                "error", errorCode == null ? "UNKNOWN" : errorCode.name()).increment();
         return ResultUtils.error(e.getCode(), e.getMessage(), e.getDescription());
     }
 
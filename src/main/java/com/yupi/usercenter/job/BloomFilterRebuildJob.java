@@ -0,0 +1,32 @@
+package com.yupi.usercenter.job;
+
+import com.yupi.usercenter.manager.UserBloomFilterManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 定时重建用户布隆过滤器（清掉已删除的用户，并按当前数据量重新分层）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "usercenter.bloom", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BloomFilterRebuildJob {
+
+    @Resource
+    private UserBloomFilterManager userBloomFilterManager;
+
+    @Scheduled(cron = "${usercenter.bloom.rebuild-cron:0 0 4 * * ?}")
+    public void rebuild() {
+        try {
+            userBloomFilterManager.rebuild();
+        } catch (Exception e) {
+            log.error("rebuild user bloom filter failed", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.yupi.usercenter.job;
+
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.utils.DesensitizeUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 回填脱敏后的手机号、邮箱（maskedPhone、maskedEmail 列添加前的旧数据，以及滚动发布期间旧版本写入的数据）
+ * 启动完成后执行一次，之后每天执行一次；按 id 分批，没有需要回填的数据时只有一次查询
+ * 回填前这些用户的列表查询返回 ****，已缓存的用户在缓存过期后更新
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "usercenter.masked-backfill", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MaskedContactBackfillJob {
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Value("${usercenter.masked-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${usercenter.masked-backfill.cron:0 30 4 * * ?}")
+    public void backfill() {
+        try {
+            long count = doBackfill();
+            if (count > 0) {
+                log.info("backfill masked phone and email finished, rows: {}", count);
+            }
+        } catch (Exception e) {
+            /* 回填失败不影响使用，下次再继续 */
+            log.error("backfill masked phone and email failed", e);
+        }
+    }
+
+    /**
+     * 按 id 升序分批回填
+     *
+     * @return 回填的行数
+     */
+    public long doBackfill() {
+        long count = 0;
+        long afterId = 0;
+        while (true) {
+            List<User> userList = userMapper.selectUnmaskedUsers(afterId, batchSize);
+            for (User user : userList) {
+                count += userMapper.updateMaskedContact(user.getId(),
+                        DesensitizeUtils.maskPhone(user.getPhone()), DesensitizeUtils.maskEmail(user.getEmail()));
+            }
+            if (userList.size() < batchSize) {
+                return count;
+            }
+            afterId = userList.get(userList.size() - 1).getId();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.yupi.usercenter.job;
+
+import com.yupi.usercenter.datasource.ReadWriteRoutingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 定时检查不健康的从库，恢复后重新参与读请求
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@ConditionalOnProperty(prefix = "usercenter.datasource.read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaHealthCheckJob {
+
+    @Resource
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${usercenter.datasource.read-replica.health-check-interval-millis:5000}")
+    public void checkReplicas() {
+        readWriteRoutingDataSource.checkReplicas();
+    }
+}
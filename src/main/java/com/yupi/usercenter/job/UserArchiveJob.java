@@ -0,0 +1,32 @@
+package com.yupi.usercenter.job;
+
+import com.yupi.usercenter.service.UserArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 定时把逻辑删除超过保留期的用户移到 user_archive 表（user 表及其索引不再随删除的用户增长）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "usercenter.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UserArchiveJob {
+
+    @Resource
+    private UserArchiveService userArchiveService;
+
+    @Scheduled(cron = "${usercenter.archive.cron:0 0 3 * * ?}")
+    public void archive() {
+        try {
+            userArchiveService.archiveDeletedUsers();
+        } catch (Exception e) {
+            log.error("archive deleted users failed", e);
+        }
+    }
+}
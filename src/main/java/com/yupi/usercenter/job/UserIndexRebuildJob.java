@@ -0,0 +1,39 @@
+package com.yupi.usercenter.job;
+
+import com.yupi.usercenter.service.TagIndexService;
+import com.yupi.usercenter.service.UserNameIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 定时重建用户内存索引（标签索引、用户名索引），补上丢失的修改通知
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+public class UserIndexRebuildJob {
+
+    @Resource
+    private TagIndexService tagIndexService;
+
+    @Resource
+    private UserNameIndexService userNameIndexService;
+
+    @Scheduled(cron = "${usercenter.index.rebuild-cron:0 15 4 * * ?}")
+    public void rebuild() {
+        try {
+            tagIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("rebuild tag index failed", e);
+        }
+        try {
+            userNameIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("rebuild user name index failed", e);
+        }
+    }
+}
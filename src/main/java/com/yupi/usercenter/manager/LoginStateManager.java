@@ -0,0 +1,244 @@
+package com.yupi.usercenter.manager;
+
+import com.yupi.usercenter.auth.TokenClaims;
+import com.yupi.usercenter.auth.TokenCodec;
+import com.yupi.usercenter.auth.TokenType;
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.config.AuthProperties;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.model.domain.User;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.yupi.usercenter.contant.UserConstant.*;
+
+/**
+ * 登录态管理，按 usercenter.auth.mode 选择保存方式
+ * session：登录态保存在 session 中（Redis），每个请求都要读取 session
+ * token：登录时下发签名的访问令牌和刷新令牌，请求时只做本地 HMAC 校验，不访问 Redis；
+ * 注销、刷新时把刷新令牌 id 加入 Redis 黑名单（带过期时间），只有刷新时才检查黑名单
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+public class LoginStateManager {
+
+    private static final String DENYLIST_KEY_PREFIX = "usercenter:auth:denylist:";
+
+    /**
+     * 请求属性：本次请求已解析的登录态
+     */
+    private static final String PRINCIPAL_ATTRIBUTE = LoginStateManager.class.getName() + ".PRINCIPAL";
+
+    /**
+     * 请求属性中表示"未登录"的值（请求属性不能保存 null）
+     */
+    private static final Object NO_PRINCIPAL = new Object();
+
+    /**
+     * HMAC-SHA256 密钥的最小长度
+     */
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    @Resource
+    private AuthProperties authProperties;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private TokenCodec tokenCodec;
+
+    @PostConstruct
+    public void init() {
+        if (!authProperties.isTokenMode()) {
+            return;
+        }
+        String secret = authProperties.getTokenSecret();
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("usercenter.auth.token-secret must be at least " + MIN_SECRET_LENGTH + " bytes in token mode");
+        }
+        tokenCodec = new TokenCodec(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 是否为 token 模式
+     *
+     * @return
+     */
+    public boolean isTokenMode() {
+        return tokenCodec != null;
+    }
+
+    /**
+     * 记录登录态：session 模式写入 session，token 模式在响应头中下发令牌
+     *
+     * @param user     登录的用户
+     * @param request
+     * @param response
+     */
+    public void login(User user, HttpServletRequest request, HttpServletResponse response) {
+        UserPrincipal principal = UserPrincipal.of(user);
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        if (isTokenMode()) {
+            issueTokens(user, response);
+            return;
+        }
+        /* 只保存 id、角色、状态、版本戳 */
+        HttpSession session = request.getSession();
+        session.setAttribute(USER_LOGIN_STATE, principal);
+        /* 按用户 id 建立 session 索引，角色变化时可以找到该用户的所有 session */
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, String.valueOf(user.getId()));
+    }
+
+    /**
+     * 获取登录态，每个请求只解析一次（session 模式只读一次 session，token 模式只校验一次签名），结果缓存在请求属性中
+     *
+     * @param request
+     * @return 未登录（token 模式下令牌无效或过期）时返回 null
+     */
+    public UserPrincipal getPrincipal(HttpServletRequest request) {
+        Object cached = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        if (cached != null) {
+            return cached == NO_PRINCIPAL ? null : (UserPrincipal) cached;
+        }
+        UserPrincipal principal = resolvePrincipal(request);
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal == null ? NO_PRINCIPAL : principal);
+        return principal;
+    }
+
+    private UserPrincipal resolvePrincipal(HttpServletRequest request) {
+        if (isTokenMode()) {
+            String authorization = request.getHeader(AUTHORIZATION_HEADER);
+            if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+                return null;
+            }
+            TokenClaims claims = tokenCodec.decode(authorization.substring(BEARER_PREFIX.length()), nowSeconds());
+            if (claims == null || claims.getType() != TokenType.ACCESS) {
+                return null;
+            }
+            return claims.getPrincipal();
+        }
+        /* 不存在 session 时不创建 */
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return null;
+        }
+        Object userObj = session.getAttribute(USER_LOGIN_STATE);
+        /* 升级前登录的 session 里保存的是脱敏后的 User */
+        if (userObj instanceof User) {
+            return UserPrincipal.of((User) userObj);
+        }
+        return (UserPrincipal) userObj;
+    }
+
+    /**
+     * 注销：session 模式移除登录态，token 模式把请求头中的刷新令牌加入黑名单（访问令牌到期后自然失效）
+     *
+     * @param request
+     */
+    public void logout(HttpServletRequest request) {
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, NO_PRINCIPAL);
+        if (isTokenMode()) {
+            TokenClaims claims = decodeRefreshToken(request);
+            if (claims != null) {
+                deny(claims);
+            }
+            return;
+        }
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return;
+        }
+        session.removeAttribute(USER_LOGIN_STATE);
+        session.removeAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
+    }
+
+    /**
+     * 使用请求头中的刷新令牌（每个刷新令牌只能使用一次），返回令牌所属的用户 id
+     *
+     * @param request
+     * @return 用户 id
+     */
+    public long consumeRefreshToken(HttpServletRequest request) {
+        if (!isTokenMode()) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "当前不是令牌登录模式");
+        }
+        TokenClaims claims = decodeRefreshToken(request);
+        if (claims == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "刷新令牌无效或已过期");
+        }
+        /* 加入黑名单的同时检查是否已在黑名单中（已注销或已使用过） */
+        if (!deny(claims)) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN, "刷新令牌已失效");
+        }
+        return claims.getPrincipal().getId();
+    }
+
+    /**
+     * 签发访问令牌和刷新令牌，写入响应头
+     *
+     * @param user     用户（角色、状态取当前值）
+     * @param response
+     */
+    public void issueTokens(User user, HttpServletResponse response) {
+        UserPrincipal principal = UserPrincipal.of(user);
+        long now = nowSeconds();
+        String accessToken = tokenCodec.encode(new TokenClaims(TokenType.ACCESS, random.nextLong(), principal,
+                now + authProperties.getAccessTokenTtlSeconds()));
+        String refreshToken = tokenCodec.encode(new TokenClaims(TokenType.REFRESH, random.nextLong(), principal,
+                now + authProperties.getRefreshTokenTtlSeconds()));
+        response.setHeader(ACCESS_TOKEN_HEADER, accessToken);
+        response.setHeader(REFRESH_TOKEN_HEADER, refreshToken);
+    }
+
+    private TokenClaims decodeRefreshToken(HttpServletRequest request) {
+        String refreshToken = request.getHeader(REFRESH_TOKEN_HEADER);
+        if (StringUtils.isBlank(refreshToken)) {
+            return null;
+        }
+        TokenClaims claims = tokenCodec.decode(refreshToken, nowSeconds());
+        if (claims == null || claims.getType() != TokenType.REFRESH) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * 把令牌 id 加入黑名单，保留到令牌过期
+     *
+     * @param claims 令牌内容
+     * @return 加入前不在黑名单中时返回 true
+     */
+    private boolean deny(TokenClaims claims) {
+        long ttl = Math.max(1, claims.getExpiresAt() - nowSeconds());
+        try {
+            Boolean result = stringRedisTemplate.opsForValue().setIfAbsent(
+                    DENYLIST_KEY_PREFIX + Long.toHexString(claims.getTokenId()), "1", ttl, TimeUnit.SECONDS);
+            return Boolean.TRUE.equals(result);
+        } catch (Exception e) {
+            /* 无法确认令牌是否已失效时不允许刷新 */
+            log.error("update token denylist failed, userId: {}", claims.getPrincipal().getId(), e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        }
+    }
+
+    private long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
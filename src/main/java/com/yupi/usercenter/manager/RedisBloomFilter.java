@@ -0,0 +1,288 @@
+package com.yupi.usercenter.manager;
+
+import com.yupi.usercenter.config.BloomFilterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于 Redis 位图的可扩容布隆过滤器，多个节点共享
+ * 读写都通过 lua/bloom_filter.lua 完成，一次调用一次往返；脚本用到的键全部通过 KEYS 传入，
+ * 键名带 {name} 哈希标签，同一个过滤器的键落在 Redis Cluster 的同一个槽
+ * 重建时新代和当前代同时写入，重建完成后原子切换，切换前后都不会漏判新注册的元素
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Slf4j
+public class RedisBloomFilter {
+
+    private static final String KEY_PREFIX = "usercenter:bloom:";
+
+    /**
+     * 批量写入、批量判断时每次脚本调用的元素个数
+     */
+    private static final int ADD_BATCH_SIZE = 1000;
+
+    /**
+     * 每一代的最大层数（首层容量 100 万、每层翻倍时约 10 亿个元素）
+     */
+    private static final int MAX_LAYERS = 10;
+
+    /**
+     * 当前代、重建中的代分别占用的槽位
+     */
+    private static final String[] SLOTS = {"a", "b"};
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisScript<Long> bloomFilterScript;
+
+    /**
+     * 同一个脚本，返回数组的操作（containsAll）使用
+     */
+    private final RedisScript<List<Long>> bloomFilterListScript;
+
+    private final BloomFilterProperties bloomFilterProperties;
+
+    private final String name;
+
+    private final String keyPrefix;
+
+    /**
+     * 脚本的 KEYS：当前代槽位、重建中槽位、槽位 a 的参数和各层位图、槽位 b 的参数和各层位图
+     */
+    private final List<String> scriptKeys;
+
+    private final LongAdder absentCount = new LongAdder();
+
+    private final LongAdder maybePresentCount = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    public RedisBloomFilter(StringRedisTemplate stringRedisTemplate, RedisScript<Long> bloomFilterScript,
+                            RedisScript<List<Long>> bloomFilterListScript, BloomFilterProperties bloomFilterProperties, String name) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.bloomFilterScript = bloomFilterScript;
+        this.bloomFilterListScript = bloomFilterListScript;
+        this.bloomFilterProperties = bloomFilterProperties;
+        this.name = name;
+        this.keyPrefix = KEY_PREFIX + "{" + name + "}:";
+        List<String> keys = new ArrayList<>(2 + SLOTS.length * (MAX_LAYERS + 1));
+        keys.add(keyPrefix + "gen");
+        keys.add(keyPrefix + "pending");
+        for (String slot : SLOTS) {
+            keys.add(keyPrefix + slot + ":meta");
+            for (int i = 0; i < MAX_LAYERS; i++) {
+                keys.add(keyPrefix + slot + ":" + i);
+            }
+        }
+        this.scriptKeys = Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * 批量判断是否可能存在，每 1000 个元素一次往返；还没有构建或 Redis 出错时按可能存在处理
+     *
+     * @param values 元素
+     * @return 可能存在的元素（保持原顺序）
+     */
+    public List<String> filterMightContain(List<String> values) {
+        List<String> maybePresentList = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += ADD_BATCH_SIZE) {
+            List<String> batch = values.subList(from, Math.min(from + ADD_BATCH_SIZE, values.size()));
+            List<Long> result = null;
+            try {
+                Object[] args = new Object[1 + batch.size() * 2];
+                args[0] = "containsAll";
+                int i = 1;
+                for (String value : batch) {
+                    long[] hash = hash(value);
+                    args[i++] = String.valueOf(hash[0]);
+                    args[i++] = String.valueOf(hash[1]);
+                }
+                result = stringRedisTemplate.execute(bloomFilterListScript, scriptKeys, args);
+            } catch (Exception e) {
+                errorCount.increment();
+                log.warn("bloom filter contains all failed, name: {}", name, e);
+            }
+            if (result == null || result.size() != batch.size()) {
+                maybePresentCount.add(batch.size());
+                maybePresentList.addAll(batch);
+                continue;
+            }
+            for (int j = 0; j < batch.size(); j++) {
+                if (result.get(j) == 0L) {
+                    absentCount.increment();
+                } else {
+                    maybePresentCount.increment();
+                    maybePresentList.add(batch.get(j));
+                }
+            }
+        }
+        return maybePresentList;
+    }
+
+    /**
+     * 添加元素（当前代和重建中的代都写入）
+     * Redis 出错时只记录日志，之后可能漏判，靠定时重建修复
+     *
+     * @param value 元素
+     */
+    public void add(String value) {
+        try {
+            addInternal("all", Collections.singletonList(value));
+        } catch (Exception e) {
+            errorCount.increment();
+            log.error("bloom filter add failed, name: {}", name, e);
+        }
+    }
+
+    /**
+     * 批量添加（当前代和重建中的代都写入），每 1000 个元素一次往返
+     * Redis 出错时只记录日志，之后可能漏判，靠定时重建修复
+     *
+     * @param values 元素
+     */
+    public void addAll(Collection<String> values) {
+        try {
+            addAllInternal("all", values);
+        } catch (Exception e) {
+            errorCount.increment();
+            log.error("bloom filter add all failed, name: {}", name, e);
+        }
+    }
+
+    /**
+     * 开始重建：之后 add 会同时写入新代
+     */
+    public void beginRebuild() {
+        execute("begin");
+    }
+
+    /**
+     * 向重建中的代批量写入
+     *
+     * @param values 元素
+     */
+    public void addAllToRebuild(Collection<String> values) {
+        addAllInternal("pending", values);
+    }
+
+    /**
+     * 重建完成：切换到新代并删除旧代
+     */
+    public void finishRebuild() {
+        execute("swap");
+    }
+
+    private void addAllInternal(String scope, Collection<String> values) {
+        List<String> batch = new ArrayList<>(Math.min(values.size(), ADD_BATCH_SIZE));
+        for (String value : values) {
+            batch.add(value);
+            if (batch.size() == ADD_BATCH_SIZE) {
+                addInternal(scope, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            addInternal(scope, batch);
+        }
+    }
+
+    /**
+     * 是否已经构建过
+     *
+     * @return
+     */
+    public boolean isBuilt() {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(keyPrefix + "gen"));
+    }
+
+    /**
+     * 统计信息：每层参数、按填充程度估算的误判率、本节点判定次数
+     *
+     * @return
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("absentCount", absentCount.sum());
+        stats.put("maybePresentCount", maybePresentCount.sum());
+        stats.put("errorCount", errorCount.sum());
+        String gen = stringRedisTemplate.opsForValue().get(keyPrefix + "gen");
+        stats.put("generation", gen);
+        if (gen == null) {
+            return stats;
+        }
+        Map<Object, Object> meta = stringRedisTemplate.opsForHash().entries(keyPrefix + gen + ":meta");
+        int layers = Integer.parseInt(String.valueOf(meta.getOrDefault("layers", "0")));
+        List<Map<String, Object>> layerList = new ArrayList<>(layers);
+        long totalCount = 0;
+        /* 任意一层误判就算误判：1 - ∏(1 - f_i)，f_i = (1 - e^(-k * n / m))^k */
+        double notFalsePositive = 1.0;
+        for (int i = 0; i < layers; i++) {
+            long capacity = Long.parseLong(String.valueOf(meta.get("capacity:" + i)));
+            long m = Long.parseLong(String.valueOf(meta.get("m:" + i)));
+            int k = Integer.parseInt(String.valueOf(meta.get("k:" + i)));
+            long count = Long.parseLong(String.valueOf(meta.get("count:" + i)));
+            double layerRate = Math.pow(1 - Math.exp(-(double) k * count / m), k);
+            notFalsePositive *= 1 - layerRate;
+            totalCount += count;
+            Map<String, Object> layer = new LinkedHashMap<>();
+            layer.put("capacity", capacity);
+            layer.put("count", count);
+            layer.put("bits", m);
+            layer.put("hashes", k);
+            layer.put("falsePositiveRate", layerRate);
+            layerList.add(layer);
+        }
+        stats.put("count", totalCount);
+        stats.put("layers", layerList);
+        stats.put("estimatedFalsePositiveRate", 1 - notFalsePositive);
+        return stats;
+    }
+
+    private void addInternal(String scope, List<String> values) {
+        String[] args = new String[6 + values.size() * 2];
+        args[0] = "add";
+        args[1] = String.valueOf(bloomFilterProperties.getInitialCapacity());
+        args[2] = String.valueOf(bloomFilterProperties.getFalsePositiveRate());
+        args[3] = String.valueOf(bloomFilterProperties.getGrowthFactor());
+        args[4] = String.valueOf(bloomFilterProperties.getTighteningRatio());
+        args[5] = scope;
+        int i = 6;
+        for (String value : values) {
+            long[] hash = hash(value);
+            args[i++] = String.valueOf(hash[0]);
+            args[i++] = String.valueOf(hash[1]);
+        }
+        stringRedisTemplate.execute(bloomFilterScript, scriptKeys, (Object[]) args);
+    }
+
+    private Long execute(String op) {
+        return stringRedisTemplate.execute(bloomFilterScript, scriptKeys, op);
+    }
+
+    /**
+     * 双重哈希：64 位 FNV-1a 再做 murmur3 fmix64，拆成两个 32 位哈希（h2 取奇数，避免为 0）
+     *
+     * @param value 元素
+     * @return [h1, h2]
+     */
+    static long[] hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return new long[]{h >>> 32, (h & 0xffffffffL) | 1};
+    }
+}
@@ -0,0 +1,250 @@
+package com.yupi.usercenter.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.usercenter.config.BloomFilterProperties;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户账号 / 星球编号布隆过滤器
+ * “一定不存在”就可以跳过查重的查询，“可能存在”才查数据库
+ * 注册本身依赖唯一索引，不再预先查重；批量导入时只对可能存在的账号、星球编号做 IN 查询
+ * 漏判（写入过滤器失败）时由唯一索引兜底，只会让该批回退为逐行插入
+ * 逻辑删除的用户不会从过滤器中移除，只会多一次查库，定时重建时清掉
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+public class UserBloomFilterManager {
+
+    /**
+     * 重建锁，保证同一时间只有一个节点在重建
+     */
+    private static final String REBUILD_LOCK_KEY = "usercenter:bloom:lock:rebuild";
+
+    private static final long REBUILD_LOCK_SECONDS = 30 * 60;
+
+    /**
+     * 重建时每批读取的用户数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private BloomFilterProperties bloomFilterProperties;
+
+    @Resource
+    private UserMapper userMapper;
+
+    private RedisBloomFilter userAccountFilter;
+
+    private RedisBloomFilter planetCodeFilter;
+
+    @PostConstruct
+    public void init() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/bloom_filter.lua"));
+        script.setResultType(Long.class);
+        RedisScript<List<Long>> listScript = createListScript();
+        userAccountFilter = new RedisBloomFilter(stringRedisTemplate, script, listScript, bloomFilterProperties, "userAccount");
+        planetCodeFilter = new RedisBloomFilter(stringRedisTemplate, script, listScript, bloomFilterProperties, "planetCode");
+    }
+
+    /**
+     * 同一个脚本，供返回数组的操作（containsAll）使用
+     * setResultType 只接受 Class，List.class 无法带上元素类型，这里强转一次；脚本返回的整数由驱动解析为 Long
+     *
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Long>> createListScript() {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/bloom_filter.lua"));
+        script.setResultType((Class<List<Long>>) (Class<?>) List.class);
+        return script;
+    }
+
+    /**
+     * 启动完成后，如果 Redis 中还没有过滤器（第一次部署或 Redis 数据丢失）就从数据库构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfAbsent() {
+        if (!bloomFilterProperties.isEnabled()) {
+            return;
+        }
+        try {
+            if (!userAccountFilter.isBuilt() || !planetCodeFilter.isBuilt()) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            /* 构建失败不影响启动，没有构建时一律按可能存在处理 */
+            log.error("build user bloom filter failed", e);
+        }
+    }
+
+    /**
+     * 批量过滤出可能已存在的账号（批量导入查重时只查这些）
+     *
+     * @param userAccountList 用户账户
+     * @return 可能已存在的账号，未启用时原样返回
+     */
+    public List<String> filterMightContainUserAccounts(List<String> userAccountList) {
+        return bloomFilterProperties.isEnabled() ? userAccountFilter.filterMightContain(userAccountList) : userAccountList;
+    }
+
+    /**
+     * 批量过滤出可能已存在的星球编号（批量导入查重时只查这些）
+     *
+     * @param planetCodeList 星球编号
+     * @return 可能已存在的星球编号，未启用时原样返回
+     */
+    public List<String> filterMightContainPlanetCodes(List<String> planetCodeList) {
+        return bloomFilterProperties.isEnabled() ? planetCodeFilter.filterMightContain(planetCodeList) : planetCodeList;
+    }
+
+    /**
+     * 新用户（或修改后的账号、星球编号）写入过滤器；在事务中调用时等事务提交后再写入，不在持有行锁时访问 Redis
+     *
+     * @param userAccount 用户账户，为 null 时不写入
+     * @param planetCode  星球编号，为 null 时不写入
+     */
+    public void addUser(String userAccount, String planetCode) {
+        if (!bloomFilterProperties.isEnabled()) {
+            return;
+        }
+        runAfterCommit(() -> {
+            if (userAccount != null) {
+                userAccountFilter.add(userAccount);
+            }
+            if (planetCode != null) {
+                planetCodeFilter.add(planetCode);
+            }
+        });
+    }
+
+    /**
+     * 批量导入的用户写入过滤器；在事务中调用时等事务提交后再写入
+     *
+     * @param userAccountList 用户账户
+     * @param planetCodeList  星球编号
+     */
+    public void addUsers(Collection<String> userAccountList, Collection<String> planetCodeList) {
+        if (!bloomFilterProperties.isEnabled()) {
+            return;
+        }
+        runAfterCommit(() -> {
+            userAccountFilter.addAll(userAccountList);
+            planetCodeFilter.addAll(planetCodeList);
+        });
+    }
+
+    /* 事务回滚时不写入；漏写只会让导入查重多一次查库 */
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 从数据库重建；未启用或其他节点正在重建时直接返回
+     *
+     * @return 是否执行了重建
+     */
+    public boolean rebuild() {
+        if (!bloomFilterProperties.isEnabled()) {
+            return false;
+        }
+        String lockValue = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, lockValue, REBUILD_LOCK_SECONDS, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("user bloom filter is rebuilding on another node, skip");
+            return false;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            userAccountFilter.beginRebuild();
+            planetCodeFilter.beginRebuild();
+            long total = 0;
+            long lastId = 0;
+            while (true) {
+                /* 按 id 分批读取，只取需要的列 */
+                QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id", "userAccount", "planetCode")
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("limit " + REBUILD_BATCH_SIZE);
+                List<User> userList = userMapper.selectList(queryWrapper);
+                List<String> userAccountList = new ArrayList<>(userList.size());
+                List<String> planetCodeList = new ArrayList<>(userList.size());
+                for (User user : userList) {
+                    if (user.getUserAccount() != null) {
+                        userAccountList.add(user.getUserAccount());
+                    }
+                    if (user.getPlanetCode() != null) {
+                        planetCodeList.add(user.getPlanetCode());
+                    }
+                }
+                userAccountFilter.addAllToRebuild(userAccountList);
+                planetCodeFilter.addAllToRebuild(planetCodeList);
+                total += userList.size();
+                if (userList.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                lastId = userList.get(userList.size() - 1).getId();
+            }
+            userAccountFilter.finishRebuild();
+            planetCodeFilter.finishRebuild();
+            log.info("user bloom filter rebuilt, users: {}, cost: {}ms", total, System.currentTimeMillis() - start);
+            return true;
+        } finally {
+            if (lockValue.equals(stringRedisTemplate.opsForValue().get(REBUILD_LOCK_KEY))) {
+                stringRedisTemplate.delete(REBUILD_LOCK_KEY);
+            }
+        }
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", bloomFilterProperties.isEnabled());
+        if (bloomFilterProperties.isEnabled()) {
+            stats.put("userAccount", userAccountFilter.getStats());
+            stats.put("planetCode", planetCodeFilter.getStats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,251 @@
+package com.yupi.usercenter.manager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.yupi.usercenter.config.UserCacheProperties;
+import com.yupi.usercenter.model.vo.UserVO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 用户缓存（按 id）：本地 Caffeine 一级缓存 + Redis 二级缓存，读穿透
+ * 只缓存脱敏后的用户，Redis 不可用时直接回源数据库
+ * 修改、删除用户的事务提交后通过 Redis 发布订阅通知所有节点删除本地缓存
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+public class UserCacheManager implements MessageListener {
+
+    /**
+     * 本地缓存失效通知频道，消息内容为 节点 id:用户 id（响应式工程使用同一个频道）
+     */
+    public static final String INVALIDATE_CHANNEL = "usercenter:user:cache:invalidate";
+
+    /**
+     * 缓存值为脱敏用户 UserVO 的 JSON
+     */
+    private static final String REDIS_KEY_PREFIX = "usercenter:user:vo:";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private UserCacheProperties userCacheProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, UserVO> localCache;
+
+    /**
+     * 本节点 id，收到自己发出的通知时跳过
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final LongAdder redisHitCount = new LongAdder();
+
+    private final LongAdder redisMissCount = new LongAdder();
+
+    private final LongAdder redisErrorCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(userCacheProperties.getLocalMaxSize())
+                .expireAfterWrite(userCacheProperties.getLocalTtlSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        bindMetrics();
+    }
+
+    /**
+     * 注册监控指标：本地缓存大小、命中、淘汰（cache_* ，cache=user），Redis 二级缓存命中、未命中、异常次数
+     */
+    private void bindMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "user");
+        FunctionCounter.builder("usercenter.cache.redis.requests", redisHitCount, LongAdder::sum)
+                .tags("cache", "user", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("usercenter.cache.redis.requests", redisMissCount, LongAdder::sum)
+                .tags("cache", "user", "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("usercenter.cache.redis.requests", redisErrorCount, LongAdder::sum)
+                .tags("cache", "user", "result", "error").register(meterRegistry);
+    }
+
+    /**
+     * 按 id 获取用户，本地缓存 -> Redis -> loader 依次查找
+     *
+     * @param userId 用户 id
+     * @param loader 缓存都未命中时的加载方法（返回 null 表示用户不存在，不缓存）
+     * @return
+     */
+    public UserVO get(long userId, Function<Long, UserVO> loader) {
+        UserVO user = localCache.getIfPresent(userId);
+        if (user != null) {
+            return user;
+        }
+        user = getFromRedis(userId);
+        if (user == null) {
+            user = loader.apply(userId);
+            if (user == null) {
+                return null;
+            }
+            putToRedis(userId, user);
+        }
+        localCache.put(userId, user);
+        return user;
+    }
+
+    /**
+     * 删除缓存并通知其他节点删除本地缓存；在事务中调用时，事务提交后会再删一次（避免提交前被并发读回填旧数据）再通知
+     *
+     * @param userId 用户 id
+     */
+    public void invalidate(long userId) {
+        evict(userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishInvalidation(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+                publishInvalidation(userId);
+            }
+        });
+    }
+
+    /**
+     * 其他节点修改了用户，删除本地缓存（Redis 缓存已由发送方删除）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(':');
+        if (index < 0 || nodeId.equals(body.substring(0, index))) {
+            return;
+        }
+        try {
+            localCache.invalidate(Long.parseLong(body.substring(index + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("illegal user cache invalidation message: {}", body);
+        }
+    }
+
+    /**
+     * 本地缓存条数
+     *
+     * @return
+     */
+    public long localSize() {
+        return localCache.estimatedSize();
+    }
+
+    /**
+     * 命中率统计
+     *
+     * @return
+     */
+    public Map<String, Object> getStats() {
+        CacheStats localStats = localCache.stats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("localSize", localCache.estimatedSize());
+        stats.put("localHitCount", localStats.hitCount());
+        stats.put("localMissCount", localStats.missCount());
+        stats.put("localHitRate", localStats.hitRate());
+        stats.put("localEvictionCount", localStats.evictionCount());
+        long redisHits = redisHitCount.sum();
+        long redisMisses = redisMissCount.sum();
+        stats.put("redisHitCount", redisHits);
+        stats.put("redisMissCount", redisMisses);
+        stats.put("redisHitRate", redisHits + redisMisses == 0 ? 1.0 : (double) redisHits / (redisHits + redisMisses));
+        stats.put("redisErrorCount", redisErrorCount.sum());
+        return stats;
+    }
+
+    private void evict(long userId) {
+        localCache.invalidate(userId);
+        if (!userCacheProperties.isRedisEnabled()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.delete(REDIS_KEY_PREFIX + userId);
+        } catch (Exception e) {
+            redisErrorCount.increment();
+            log.warn("evict user cache from redis failed, userId: {}", userId, e);
+        }
+    }
+
+    private void publishInvalidation(long userId) {
+        if (!userCacheProperties.isBroadcastEnabled()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, nodeId + ":" + userId);
+        } catch (Exception e) {
+            /* 通知失败时其他节点最多读到 local-ttl-seconds 秒的旧数据 */
+            redisErrorCount.increment();
+            log.warn("publish user cache invalidation failed, userId: {}", userId, e);
+        }
+    }
+
+    private UserVO getFromRedis(long userId) {
+        if (!userCacheProperties.isRedisEnabled()) {
+            return null;
+        }
+        try {
+            String json = stringRedisTemplate.opsForValue().get(REDIS_KEY_PREFIX + userId);
+            if (json == null) {
+                redisMissCount.increment();
+                return null;
+            }
+            redisHitCount.increment();
+            return objectMapper.readValue(json, UserVO.class);
+        } catch (Exception e) {
+            redisErrorCount.increment();
+            log.warn("get user cache from redis failed, userId: {}", userId, e);
+            return null;
+        }
+    }
+
+    private void putToRedis(long userId, UserVO user) {
+        if (!userCacheProperties.isRedisEnabled()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(REDIS_KEY_PREFIX + userId, objectMapper.writeValueAsString(user),
+                    userCacheProperties.getRedisTtlSeconds(), TimeUnit.SECONDS);
+        } catch (JsonProcessingException e) {
+            log.error("serialize user failed, userId: {}", userId, e);
+        } catch (Exception e) {
+            redisErrorCount.increment();
+            log.warn("put user cache to redis failed, userId: {}", userId, e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.yupi.usercenter.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.service.TagIndexService;
+import com.yupi.usercenter.service.UserNameIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 用户内存索引（标签索引、用户名索引）的同步
+ * 用户修改后按数据库中的最新数据更新本节点的索引（在事务中调用时等事务提交后再更新），
+ * 并通过 Redis 发布修改的用户 id，其他节点（包括响应式工程的修改）收到后从数据库重新加载；
+ * 通知丢失时由 UserIndexRebuildJob 定时重建兜底
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+public class UserIndexSyncManager implements MessageListener {
+
+    /**
+     * 消息格式为 "节点 id:用户 id,用户 id,..."
+     */
+    public static final String INDEX_CHANNEL = "usercenter:index:user-changed";
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private TagIndexService tagIndexService;
+
+    @Resource
+    private UserNameIndexService userNameIndexService;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 是否通过 Redis 通知其他节点（单节点部署、基准测试可以关闭）
+     */
+    @Value("${usercenter.index.sync-enabled:true}")
+    private boolean syncEnabled;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 用户已修改（注册、修改、删除、恢复）
+     *
+     * @param userId 用户 id
+     */
+    public void userChanged(long userId) {
+        usersChanged(Collections.singletonList(userId));
+    }
+
+    /**
+     * 用户已修改（批量）；在事务中调用时读到的是本事务修改后的数据，事务提交后才更新索引、通知其他节点
+     *
+     * @param userIds 用户 id
+     */
+    public void usersChanged(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> userIdList = new ArrayList<>(userIds);
+        Map<Long, User> userMap = loadUsers(userIdList);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(userIdList, userMap);
+            publish(userIdList);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(userIdList, userMap);
+                publish(userIdList);
+            }
+        });
+    }
+
+    /**
+     * 其他节点修改了用户，从数据库重新加载
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(':');
+        if (index < 0 || nodeId.equals(body.substring(0, index))) {
+            return;
+        }
+        try {
+            List<Long> userIdList = Arrays.stream(StringUtils.split(body.substring(index + 1), ','))
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList());
+            if (!userIdList.isEmpty()) {
+                apply(userIdList, loadUsers(userIdList));
+            }
+        } catch (Exception e) {
+            /* 最多到下次定时重建前搜索结果不准确 */
+            log.warn("apply user index change failed, message: {}", body, e);
+        }
+    }
+
+    /**
+     * 查询索引用到的字段（逻辑删除的用户查不到）
+     */
+    private Map<Long, User> loadUsers(List<Long> userIdList) {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "username", "userAccount", "tags").in("id", userIdList);
+        return userMapper.selectList(queryWrapper).stream().collect(Collectors.toMap(User::getId, user -> user));
+    }
+
+    private void apply(List<Long> userIdList, Map<Long, User> userMap) {
+        for (Long userId : userIdList) {
+            User user = userMap.get(userId);
+            if (user == null) {
+                tagIndexService.removeUser(userId);
+                userNameIndexService.removeUser(userId);
+                continue;
+            }
+            tagIndexService.updateUserTags(userId, user.getTags());
+            userNameIndexService.updateUser(userId, StringUtils.defaultString(user.getUsername()),
+                    StringUtils.defaultString(user.getUserAccount()));
+        }
+    }
+
+    private void publish(List<Long> userIdList) {
+        if (!syncEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(INDEX_CHANNEL, nodeId + ":" + StringUtils.join(userIdList, ','));
+        } catch (Exception e) {
+            /* 通知失败时其他节点的索引到下次定时重建前不包含这次修改 */
+            log.warn("publish user index change failed, userIds: {}", userIdList, e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yupi.usercenter.manager;
+
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.model.domain.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.util.Map;
+
+import static com.yupi.usercenter.contant.UserConstant.USER_LOGIN_STATE;
+
+/**
+ * 用户 session 管理：角色、状态变化后刷新该用户所有 session 中的登录态
+ * session 登录时按用户 id 建立索引（PRINCIPAL_NAME_INDEX_NAME），不使用 Redis 保存 session 时不做任何事
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+public class UserSessionManager {
+
+    @Resource
+    private ObjectProvider<FindByIndexNameSessionRepository<?>> sessionRepositoryProvider;
+
+    /**
+     * 用最新的用户数据刷新该用户所有已登录 session 的登录态；在事务中调用时，事务提交后再刷新
+     *
+     * @param user 最新的用户数据
+     */
+    public void refreshPrincipal(User user) {
+        if (user == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRefreshPrincipal(user);
+                }
+            });
+        } else {
+            doRefreshPrincipal(user);
+        }
+    }
+
+    private void doRefreshPrincipal(User user) {
+        FindByIndexNameSessionRepository<?> sessionRepository = sessionRepositoryProvider.getIfAvailable();
+        if (sessionRepository == null) {
+            return;
+        }
+        try {
+            int count = refreshPrincipal(sessionRepository, UserPrincipal.of(user));
+            log.info("refresh user sessions, userId: {}, sessions: {}", user.getId(), count);
+        } catch (Exception e) {
+            /* 刷新失败时旧登录态保留到重新登录或 session 过期 */
+            log.error("refresh user sessions failed, userId: {}", user.getId(), e);
+        }
+    }
+
+    private <S extends Session> int refreshPrincipal(FindByIndexNameSessionRepository<S> sessionRepository, UserPrincipal principal) {
+        Map<String, S> sessions = sessionRepository.findByPrincipalName(String.valueOf(principal.getId()));
+        int count = 0;
+        for (S session : sessions.values()) {
+            /* 已注销的 session 不能重新写入登录态 */
+            if (session.getAttribute(USER_LOGIN_STATE) == null) {
+                continue;
+            }
+            session.setAttribute(USER_LOGIN_STATE, principal);
+            sessionRepository.save(session);
+            count++;
+        }
+        return count;
+    }
+}
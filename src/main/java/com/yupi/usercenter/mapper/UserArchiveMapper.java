@@ -0,0 +1,57 @@
+package com.yupi.usercenter.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 已删除用户归档 Mapper（user 表与 user_archive 表之间搬移数据）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserArchiveMapper {
+
+    /**
+     * 查询逻辑删除时间早于 deletedBefore 的用户 id（按 (isDelete, id) 索引扫描，不读取未删除的用户）
+     *
+     * @param afterId       游标，只返回大于它的 id
+     * @param limit         最多返回个数
+     * @param deletedBefore 删除时间上限
+     * @return 按 id 升序
+     */
+    List<Long> selectArchivableUserIds(@Param("afterId") long afterId, @Param("limit") int limit,
+                                       @Param("deletedBefore") Date deletedBefore);
+
+    /**
+     * 把已逻辑删除的用户复制到 user_archive
+     *
+     * @param idList 用户 id，不能为空
+     * @return 复制的行数
+     */
+    int insertArchivedUsers(@Param("idList") List<Long> idList);
+
+    /**
+     * 从 user 表物理删除已逻辑删除的用户
+     *
+     * @param idList 用户 id，不能为空
+     * @return 删除的行数
+     */
+    int deleteArchivedUsers(@Param("idList") List<Long> idList);
+
+    /**
+     * 把归档的用户恢复到 user 表（恢复后为未删除状态）
+     *
+     * @param id 用户 id
+     * @return 恢复的行数，归档中不存在时为 0
+     */
+    int restoreUser(@Param("id") long id);
+
+    /**
+     * 删除归档记录
+     *
+     * @param id 用户 id
+     * @return 删除的行数
+     */
+    int deleteArchive(@Param("id") long id);
+}
@@ -1,7 +1,13 @@
 package com.yupi.usercenter.mapper;
 
 import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.model.vo.UserVO;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 用户 Mapper
@@ -11,6 +17,84 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface UserMapper extends BaseMapper<User> {
 
-}
+    /**
+     * 查询同时拥有所有标签的用户 id（走 user_tag 索引）
+     *
+     * @param tagList  去重后的标签
+     * @param tagCount 标签个数
+     * @param afterId  游标，只返回大于它的 id，为 null 时不限制
+     * @param limit    最多返回个数，为 null 时不限制
+     * @return 用户 id（升序）
+     */
+    List<Long> selectUserIdsByAllTags(@Param("tagList") Collection<String> tagList, @Param("tagCount") int tagCount,
+                                      @Param("afterId") Long afterId, @Param("limit") Integer limit);
+
+    /**
+     * 按 id 查询脱敏用户（只查询公开列）
+     *
+     * @param id 用户 id
+     * @return 不存在或已删除时返回 null
+     */
+    UserVO selectSafetyUserById(@Param("id") long id);
+
+    /**
+     * 按 id 批量查询脱敏用户（只查询公开列）
+     *
+     * @param idList 用户 id，不能为空
+     * @return 按 id 升序
+     */
+    List<UserVO> selectSafetyUsersByIds(@Param("idList") Collection<Long> idList);
+
+    /**
+     * 按用户名或账号搜索脱敏用户（游标分页，只查询公开列；用户名索引未就绪时使用）
+     *
+     * @param username 用户名或账号（模糊匹配），为空时查询全部
+     * @param afterId  游标，只返回大于它的 id，为 null 时不限制
+     * @param limit    最多返回个数
+     * @return 按 id 升序
+     */
+    List<UserVO> selectSafetyUsers(@Param("username") String username, @Param("afterId") Long afterId, @Param("limit") int limit);
 
+    /**
+     * 流式查询脱敏用户（需在事务内遍历，逐行读取，不会一次性加载到内存）
+     *
+     * @param username 用户名或账号（子串匹配，与 selectSafetyUsers 相同），为空时查询全部
+     * @return 用户游标
+     */
+    Cursor<UserVO> streamSafetyUsers(@Param("username") String username);
 
+    /**
+     * 查询未删除用户中已存在的账号（与唯一索引的范围一致）
+     *
+     * @param userAccountList 待检查的账号
+     * @return 其中已存在的账号
+     */
+    List<String> selectExistingUserAccounts(@Param("userAccountList") Collection<String> userAccountList);
+
+    /**
+     * 查询未删除用户中已存在的星球编号（与唯一索引的范围一致）
+     *
+     * @param planetCodeList 待检查的星球编号
+     * @return 其中已存在的星球编号
+     */
+    List<String> selectExistingPlanetCodes(@Param("planetCodeList") Collection<String> planetCodeList);
+
+    /**
+     * 查询还没有脱敏列的用户（只查 id、phone、email，包括已逻辑删除的用户）
+     *
+     * @param afterId 游标，只返回大于它的 id
+     * @param limit   最多返回个数
+     * @return 按 id 升序
+     */
+    List<User> selectUnmaskedUsers(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 写入脱敏后的手机号、邮箱（不修改 updateTime）
+     *
+     * @param id          用户 id
+     * @param maskedPhone 脱敏后的手机号
+     * @param maskedEmail 脱敏后的邮箱
+     * @return 影响行数
+     */
+    int updateMaskedContact(@Param("id") long id, @Param("maskedPhone") String maskedPhone, @Param("maskedEmail") String maskedEmail);
+}
@@ -0,0 +1,13 @@
+package com.yupi.usercenter.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yupi.usercenter.model.domain.UserTag;
+
+/**
+ * 用户标签关联 Mapper
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserTagMapper extends BaseMapper<UserTag> {
+
+}
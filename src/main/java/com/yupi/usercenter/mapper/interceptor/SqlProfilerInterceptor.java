@@ -0,0 +1,435 @@
+package com.yupi.usercenter.mapper.interceptor;
+
+import com.yupi.usercenter.config.SqlProfilerProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.Resource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 统计拦截器（MyBatis-Plus 自动注册容器中的 Interceptor）
+ * 按 语句 id + SQL 文本（QueryWrapper 条件不同 SQL 文本就不同）统计次数、耗时、返回行数、映射的数据量；
+ * 超过阈值的记为慢 SQL；同一请求内参数完全相同的查询执行多次时记为重复查询
+ * 耗时同时记录到 Micrometer（usercenter.sql，按语句 id，带百分位直方图）
+ * SQL 文本中参数是占位符 ?，不记录参数值（登录查询的参数中有密码）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Component
+@Slf4j
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SqlProfilerInterceptor implements Interceptor {
+
+    /**
+     * 请求属性：本次请求执行过的查询（CacheKey 包含语句 id、分页、SQL、参数值）及次数
+     */
+    private static final String REQUEST_QUERIES_ATTRIBUTE = SqlProfilerInterceptor.class.getName() + ".QUERIES";
+
+    /**
+     * SQL 种类超过上限后，新出现的 SQL 合并到这一项
+     */
+    private static final String OTHER_SQL = "<other>";
+
+    @Resource
+    private SqlProfilerProperties sqlProfilerProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Map<SqlKey, SqlStats> statsMap = new ConcurrentHashMap<>();
+
+    private final Deque<Map<String, Object>> slowLog = new ArrayDeque<>();
+
+    private final Deque<Map<String, Object>> repeatLog = new ArrayDeque<>();
+
+    /**
+     * 各实体类的字段（估算映射的数据量时使用）
+     */
+    private final Map<Class<?>, Field[]> fieldCache = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        if (!sqlProfilerProperties.isEnabled() || !matches(ms.getId())) {
+            return invocation.proceed();
+        }
+        Executor executor = (Executor) invocation.getTarget();
+        Object parameter = args[1];
+        String method = invocation.getMethod().getName();
+        BoundSql boundSql;
+        Object result = null;
+        long start;
+        boolean success = false;
+        if ("query".equals(method)) {
+            RowBounds rowBounds = (RowBounds) args[2];
+            ResultHandler resultHandler = (ResultHandler) args[3];
+            CacheKey cacheKey;
+            if (args.length == 6) {
+                cacheKey = (CacheKey) args[4];
+                boundSql = (BoundSql) args[5];
+            } else {
+                /* 自己生成 BoundSql 后调用 6 个参数的 query，避免动态 SQL 生成两次 */
+                boundSql = ms.getBoundSql(parameter);
+                cacheKey = executor.createCacheKey(ms, parameter, rowBounds, boundSql);
+            }
+            checkRepeated(ms.getId(), boundSql, cacheKey);
+            start = System.nanoTime();
+            try {
+                result = executor.query(ms, parameter, rowBounds, resultHandler, cacheKey, boundSql);
+                success = true;
+                return result;
+            } finally {
+                record(ms, boundSql, System.nanoTime() - start, result, success);
+            }
+        }
+        /* queryCursor 只统计打开游标的耗时；update 的 SQL 文本需要单独生成一次 */
+        boundSql = ms.getBoundSql(parameter);
+        start = System.nanoTime();
+        try {
+            result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            record(ms, boundSql, System.nanoTime() - start, result, success);
+        }
+    }
+
+    /**
+     * 统计数据：按总耗时降序的 SQL 统计、最近的慢 SQL、最近的请求内重复查询
+     *
+     * @return
+     */
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> statementList = new ArrayList<>(statsMap.size());
+        statsMap.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().totalNanos.sum(), a.getValue().totalNanos.sum()))
+                .forEach(entry -> statementList.add(entry.getValue().toMap(entry.getKey())));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("slowThresholdMillis", sqlProfilerProperties.getSlowThresholdMillis());
+        stats.put("statements", statementList);
+        synchronized (slowLog) {
+            stats.put("slow", new ArrayList<>(slowLog));
+        }
+        synchronized (repeatLog) {
+            stats.put("repeated", new ArrayList<>(repeatLog));
+        }
+        return stats;
+    }
+
+    /**
+     * 清空统计数据（Micrometer 中的指标不清空）
+     */
+    public void reset() {
+        statsMap.clear();
+        synchronized (slowLog) {
+            slowLog.clear();
+        }
+        synchronized (repeatLog) {
+            repeatLog.clear();
+        }
+    }
+
+    private boolean matches(String statementId) {
+        for (String namespace : sqlProfilerProperties.getNamespaces()) {
+            if (statementId.startsWith(namespace)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 同一请求内第二次执行相同查询时记录（之后每多执行一次只增加计数）
+     */
+    @SuppressWarnings("unchecked")
+    private void checkRepeated(String statementId, BoundSql boundSql, CacheKey cacheKey) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return;
+        }
+        Map<CacheKey, Integer> queries = (Map<CacheKey, Integer>) requestAttributes.getAttribute(REQUEST_QUERIES_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (queries == null) {
+            queries = new HashMap<>();
+            requestAttributes.setAttribute(REQUEST_QUERIES_ATTRIBUTE, queries, RequestAttributes.SCOPE_REQUEST);
+        }
+        int count = queries.merge(cacheKey, 1, Integer::sum);
+        if (count < 2) {
+            return;
+        }
+        meterRegistry.counter("usercenter.sql.repeated", "statement", getShortId(statementId)).increment();
+        if (count > 2) {
+            return;
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("statementId", statementId);
+        record.put("sql", normalizeSql(boundSql.getSql()));
+        if (requestAttributes instanceof ServletRequestAttributes) {
+            record.put("uri", ((ServletRequestAttributes) requestAttributes).getRequest().getRequestURI());
+        }
+        record.put("time", new Date());
+        log.warn("repeated query in one request, statement: {}, uri: {}", statementId, record.get("uri"));
+        append(repeatLog, record, sqlProfilerProperties.getRepeatLogSize());
+    }
+
+    private void record(MappedStatement ms, BoundSql boundSql, long costNanos, Object result, boolean success) {
+        String statementId = ms.getId();
+        String sql = normalizeSql(boundSql.getSql());
+        /* 查询返回 List，update 返回影响行数，游标无法得知行数 */
+        long rows = -1;
+        long bytes = 0;
+        if (result instanceof List) {
+            rows = ((List<?>) result).size();
+            bytes = estimateBytes((List<?>) result);
+        } else if (result instanceof Integer) {
+            rows = (Integer) result;
+        }
+        SqlKey key = new SqlKey(statementId, sql);
+        SqlStats stats = statsMap.get(key);
+        if (stats == null) {
+            if (statsMap.size() >= sqlProfilerProperties.getMaxShapes()) {
+                key = new SqlKey(statementId, OTHER_SQL);
+            }
+            stats = statsMap.computeIfAbsent(key, k -> new SqlStats());
+        }
+        stats.record(costNanos, rows, bytes, success);
+
+        String shortId = getShortId(statementId);
+        String type = ms.getSqlCommandType() == SqlCommandType.SELECT ? "select" : ms.getSqlCommandType().name().toLowerCase();
+        Timer.builder("usercenter.sql")
+                .tag("statement", shortId)
+                .tag("type", type)
+                .tag("success", String.valueOf(success))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(costNanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            DistributionSummary.builder("usercenter.sql.rows")
+                    .tag("statement", shortId)
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .record(rows);
+        }
+
+        long costMillis = TimeUnit.NANOSECONDS.toMillis(costNanos);
+        if (costMillis >= sqlProfilerProperties.getSlowThresholdMillis()) {
+            Map<String, Object> slowRecord = new LinkedHashMap<>();
+            slowRecord.put("statementId", statementId);
+            slowRecord.put("sql", sql);
+            slowRecord.put("costMillis", costMillis);
+            slowRecord.put("rows", rows);
+            slowRecord.put("time", new Date());
+            log.warn("slow sql, statement: {}, cost: {}ms, rows: {}, sql: {}", statementId, costMillis, rows, sql);
+            append(slowLog, slowRecord, sqlProfilerProperties.getSlowLogSize());
+        }
+    }
+
+    private void append(Deque<Map<String, Object>> records, Map<String, Object> record, int maxSize) {
+        synchronized (records) {
+            records.addLast(record);
+            while (records.size() > Math.max(0, maxSize)) {
+                records.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * 估算映射到 Java 对象的数据量（字节）：字符串按字符数，数字、日期按 8 字节，只展开一层字段
+     */
+    private long estimateBytes(List<?> rows) {
+        long bytes = 0;
+        for (Object row : rows) {
+            if (row == null) {
+                continue;
+            }
+            if (row instanceof Map) {
+                for (Object value : ((Map<?, ?>) row).values()) {
+                    bytes += estimateValueBytes(value);
+                }
+            } else if (isScalar(row)) {
+                bytes += estimateValueBytes(row);
+            } else {
+                for (Field field : fieldCache.computeIfAbsent(row.getClass(), this::getInstanceFields)) {
+                    bytes += estimateValueBytes(ReflectionUtils.getField(field, row));
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private Field[] getInstanceFields(Class<?> clazz) {
+        List<Field> fieldList = new ArrayList<>();
+        ReflectionUtils.doWithFields(clazz, field -> {
+            ReflectionUtils.makeAccessible(field);
+            fieldList.add(field);
+        }, field -> !Modifier.isStatic(field.getModifiers()));
+        return fieldList.toArray(new Field[0]);
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Date
+                || value instanceof Boolean || value instanceof byte[];
+    }
+
+    private static long estimateValueBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof Boolean) {
+            return 1;
+        }
+        return 8;
+    }
+
+    /**
+     * 合并连续空白（XML 中的 SQL 带换行和缩进）
+     */
+    private static String normalizeSql(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = builder.length() > 0;
+                continue;
+            }
+            if (space) {
+                builder.append(' ');
+                space = false;
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * com.yupi.usercenter.mapper.UserMapper.selectList -> UserMapper.selectList
+     */
+    private static String getShortId(String statementId) {
+        int index = statementId.lastIndexOf('.');
+        index = index <= 0 ? -1 : statementId.lastIndexOf('.', index - 1);
+        return statementId.substring(index + 1);
+    }
+
+    /**
+     * 统计项：语句 id + SQL 文本
+     */
+    private static final class SqlKey {
+
+        private final String statementId;
+
+        private final String sql;
+
+        private SqlKey(String statementId, String sql) {
+            this.statementId = statementId;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SqlKey)) {
+                return false;
+            }
+            SqlKey other = (SqlKey) o;
+            return statementId.equals(other.statementId) && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * statementId.hashCode() + sql.hashCode();
+        }
+    }
+
+    /**
+     * 一种 SQL 的累计数据
+     */
+    private static final class SqlStats {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder errorCount = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private final LongAdder rows = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private void record(long costNanos, long rowCount, long byteCount, boolean success) {
+            count.increment();
+            if (!success) {
+                errorCount.increment();
+            }
+            totalNanos.add(costNanos);
+            maxNanos.accumulateAndGet(costNanos, Math::max);
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            bytes.add(byteCount);
+        }
+
+        private Map<String, Object> toMap(SqlKey key) {
+            long countValue = count.sum();
+            double totalMillis = totalNanos.sum() / 1e6;
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("statementId", key.statementId);
+            map.put("sql", key.sql);
+            map.put("count", countValue);
+            map.put("errorCount", errorCount.sum());
+            map.put("totalMillis", totalMillis);
+            map.put("avgMillis", countValue == 0 ? 0 : totalMillis / countValue);
+            map.put("maxMillis", maxNanos.get() / 1e6);
+            map.put("rows", rows.sum());
+            map.put("avgRows", countValue == 0 ? 0 : (double) rows.sum() / countValue);
+            map.put("bytes", bytes.sum());
+            return map;
+        }
+    }
+}
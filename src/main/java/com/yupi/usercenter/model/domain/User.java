@@ -56,6 +56,16 @@ public class User implements Serializable {
      */
     private String email;
 
+    /**
+     * 脱敏后的电话（写入电话时同时计算）
+     */
+    private String maskedPhone;
+
+    /**
+     * 脱敏后的邮箱（写入邮箱时同时计算）
+     */
+    private String maskedEmail;
+
     /**
      * 状态 0 - 正常
      */
@@ -82,6 +92,12 @@ public class User implements Serializable {
      */
     private Integer userRole;
 
+    /**
+     * 版本号（乐观锁），修改时必须带上读取时的值
+     */
+    @Version
+    private Integer version;
+
     /**
      * 星球编号
      */
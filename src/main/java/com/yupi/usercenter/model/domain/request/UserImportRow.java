@@ -0,0 +1,56 @@
+package com.yupi.usercenter.model.domain.request;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量导入的一行用户数据（CSV 的一行或 NDJSON 的一个对象）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Data
+public class UserImportRow implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户账号
+     */
+    private String userAccount;
+
+    /**
+     * 用户密码
+     */
+    private String userPassword;
+
+    /**
+     * 星球编号
+     */
+    private String planetCode;
+
+    /**
+     * 用户昵称
+     */
+    private String username;
+
+    /**
+     * 用户头像
+     */
+    private String avatarUrl;
+
+    /**
+     * 性别
+     */
+    private Integer gender;
+
+    /**
+     * 电话
+     */
+    private String phone;
+
+    /**
+     * 邮箱
+     */
+    private String email;
+}
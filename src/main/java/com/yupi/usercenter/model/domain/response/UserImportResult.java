@@ -0,0 +1,53 @@
+package com.yupi.usercenter.model.domain.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果（只列出失败的行，其余行都已导入）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Data
+public class UserImportResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 读取的数据行数
+     */
+    private int totalCount;
+
+    /**
+     * 导入成功的行数
+     */
+    private int successCount;
+
+    /**
+     * 导入失败的行数
+     */
+    private int failCount;
+
+    /**
+     * 是否因为超过单次导入上限而没有读完
+     */
+    private boolean truncated;
+
+    /**
+     * 导入中断的原因（如数据库不可用），为 null 表示全部处理完；中断前的批次已经导入，之后的行没有读取
+     */
+    private String errorMessage;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long costMillis;
+
+    /**
+     * 失败的行
+     */
+    private List<UserImportRowResult> failRows = new ArrayList<>();
+}
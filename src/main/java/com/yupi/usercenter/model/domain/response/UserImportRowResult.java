@@ -0,0 +1,35 @@
+package com.yupi.usercenter.model.domain.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 批量导入中导入失败的一行
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRowResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 行号（从 1 开始，CSV 包含表头行）
+     */
+    private int row;
+
+    /**
+     * 用户账号（解析失败时为 null）
+     */
+    private String userAccount;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+}
@@ -0,0 +1,36 @@
+package com.yupi.usercenter.model.enums;
+
+/**
+ * 批量导入文件格式
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public enum UserImportFormat {
+
+    /**
+     * 第一行为表头（userAccount,userPassword,planetCode,...），之后每行一个用户
+     */
+    CSV,
+
+    /**
+     * 每行一个 JSON 对象
+     */
+    NDJSON;
+
+    /**
+     * 根据格式参数或 Content-Type 识别，识别不了时按 CSV 处理
+     *
+     * @param format      格式参数（csv / ndjson），可以为 null
+     * @param contentType 请求的 Content-Type，可以为 null
+     * @return
+     */
+    public static UserImportFormat of(String format, String contentType) {
+        if (format != null) {
+            return "ndjson".equalsIgnoreCase(format) || "jsonl".equalsIgnoreCase(format) ? NDJSON : CSV;
+        }
+        if (contentType != null && contentType.toLowerCase().contains("json")) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
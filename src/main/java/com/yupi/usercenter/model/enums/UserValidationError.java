@@ -0,0 +1,29 @@
+package com.yupi.usercenter.model.enums;
+
+/**
+ * 账号 / 密码校验错误
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public enum UserValidationError {
+
+    PARAMS_BLANK("参数为空"),
+    ACCOUNT_TOO_SHORT("用户账号过短"),
+    ACCOUNT_ILLEGAL_CHAR("账号不能包含特殊字符"),
+    PASSWORD_TOO_SHORT("用户密码过短"),
+    PASSWORD_NOT_MATCH("两次输入的密码不一致"),
+    PLANET_CODE_TOO_LONG("星球编号过长");
+
+    /**
+     * 错误描述
+     */
+    private final String message;
+
+    UserValidationError(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
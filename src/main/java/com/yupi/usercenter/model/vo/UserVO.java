@@ -0,0 +1,73 @@
+package com.yupi.usercenter.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 脱敏后的用户（返回给前端）
+ * 由 UserMapper 的投影查询直接映射，只查询这些公开列，不查询密码、角色、状态、个人描述等
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Data
+public class UserVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * id
+     */
+    private Long id;
+
+    /**
+     * 用户昵称
+     */
+    private String username;
+
+    /**
+     * 账号
+     */
+    private String userAccount;
+
+    /**
+     * 用户头像
+     */
+    private String avatarUrl;
+
+    /**
+     * 性别
+     */
+    private Integer gender;
+
+    /**
+     * 电话（脱敏）
+     */
+    private String phone;
+
+    /**
+     * 邮箱（脱敏）
+     */
+    private String email;
+
+    /**
+     * 星球编号
+     */
+    private String planetCode;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 标签
+     */
+    private String tags;
+
+    /**
+     * 版本号，修改用户时原样传回
+     */
+    private Integer version;
+}
@@ -0,0 +1,132 @@
+package com.yupi.usercenter.ratelimit;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 预先读取请求体开头（最多 maxBytes 字节）的请求包装，之后 Controller 仍能读到完整的请求体
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class CachedBodyRequestWrapper extends HttpServletRequestWrapper {
+
+    /**
+     * 已读取的请求体开头
+     */
+    private final byte[] head;
+
+    /**
+     * 请求体是否已经全部读完
+     */
+    private final boolean complete;
+
+    private ServletInputStream inputStream;
+
+    public CachedBodyRequestWrapper(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        InputStream in = request.getInputStream();
+        /* 多读一个字节，用来判断请求体是否超过 maxBytes */
+        int limit = maxBytes + 1;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, 1024));
+        byte[] buffer = new byte[Math.min(limit, 1024)];
+        while (out.size() < limit) {
+            int n = in.read(buffer, 0, Math.min(buffer.length, limit - out.size()));
+            if (n < 0) {
+                break;
+            }
+            out.write(buffer, 0, n);
+        }
+        this.head = out.toByteArray();
+        this.complete = head.length <= maxBytes;
+    }
+
+    /**
+     * 请求体全部读完时返回请求体，超过 maxBytes 时返回 null
+     *
+     * @return
+     */
+    public byte[] getBody() {
+        return complete ? head : null;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CachedBodyInputStream(head, complete ? null : super.getInputStream(), super.getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    /**
+     * 先读已缓存的开头，再读原请求剩下的部分；非阻塞读取的状态和监听器交给原请求的输入流
+     */
+    private static final class CachedBodyInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream head;
+
+        /**
+         * 原请求剩下的部分，请求体已全部读完时为 null
+         */
+        private final InputStream rest;
+
+        private final ServletInputStream original;
+
+        private CachedBodyInputStream(byte[] head, InputStream rest, ServletInputStream original) {
+            this.head = new ByteArrayInputStream(head);
+            this.rest = rest;
+            this.original = original;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = head.read();
+            if (b >= 0 || rest == null) {
+                return b;
+            }
+            return rest.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (head.available() > 0) {
+                return head.read(b, off, len);
+            }
+            return rest == null ? -1 : rest.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return head.available() > 0 || rest == null ? head.available() : rest.available();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return head.available() == 0 && (rest == null || original.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return head.available() > 0 || rest == null || original.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            original.setReadListener(readListener);
+        }
+    }
+}
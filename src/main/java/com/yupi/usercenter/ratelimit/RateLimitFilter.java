@@ -0,0 +1,173 @@
+package com.yupi.usercenter.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.usercenter.common.BaseResponse;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.common.ResultUtils;
+import com.yupi.usercenter.config.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 接口限流过滤器：按配置的规则对 POST 接口（登录、注册）按客户端 IP 和请求体中的账号限流
+ * 在 session 过滤器之前执行，被拒绝的请求不读 session、不进入 Controller，直接返回 TOO_MANY_REQUEST（HTTP 429）
+ * 按账号限流的接口请求体超过 maxBodyBytes 时返回 PARAMS_ERROR（HTTP 413）
+ * 客户端 IP 取 request.getRemoteAddr()，部署在反向代理之后时需要配置 server.forward-headers-strategy
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "usercenter.rate.limited";
+
+    private static final String ACCOUNT_FIELD = "userAccount";
+
+    /**
+     * 账号限流键的最大长度（更长的账号注册、登录时本来就不合法）
+     */
+    private static final int MAX_ACCOUNT_LENGTH = 256;
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final RateLimiter rateLimiter;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxBodyBytes;
+
+    /**
+     * 接口路径 -> 限流规则
+     */
+    private final Map<String, RateLimitProperties.Rule> rules = new HashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxBodyBytes = properties.getMaxBodyBytes();
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            rules.put(trimTrailingSlash(rule.getPath()), rule);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        /* 与 Spring MVC 匹配接口时一样解码、去掉 ;参数 和末尾的 /，换一种写法的 URL 不能绕过限流 */
+        String path = trimTrailingSlash(URL_PATH_HELPER.getLookupPathForRequest(request));
+        RateLimitProperties.Rule rule = "POST".equals(request.getMethod()) ? rules.get(path) : null;
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        List<String> dimensions = new ArrayList<>(2);
+        List<String> keys = new ArrayList<>(2);
+        List<RateLimitProperties.Limit> limits = new ArrayList<>(2);
+        if (rule.getIp() != null) {
+            dimensions.add("ip");
+            keys.add("ip:" + request.getRemoteAddr());
+            limits.add(rule.getIp());
+        }
+        HttpServletRequest filteredRequest = request;
+        if (rule.getAccount() != null) {
+            /* 请求体过大时拒绝，否则填充请求体就能跳过按账号的限流 */
+            if (request.getContentLengthLong() > maxBodyBytes) {
+                rejectBodyTooLarge(path, response);
+                return;
+            }
+            /* 读取请求体中的账号，包装后 Controller 仍能读到请求体 */
+            CachedBodyRequestWrapper wrapper = new CachedBodyRequestWrapper(request, maxBodyBytes);
+            if (wrapper.getBody() == null) {
+                /* 没有 Content-Length（分块传输）时读取后才知道长度 */
+                rejectBodyTooLarge(path, response);
+                return;
+            }
+            filteredRequest = wrapper;
+            String account = readAccount(wrapper.getBody());
+            if (account != null) {
+                dimensions.add("account");
+                keys.add("account:" + account);
+                limits.add(rule.getAccount());
+            }
+        }
+        int rejected = rateLimiter.tryAcquire(path, keys, limits);
+        if (rejected >= 0) {
+            meterRegistry.counter(METRIC_NAME, "path", path, "dimension", dimensions.get(rejected)).increment();
+            reject(response);
+            return;
+        }
+        filterChain.doFilter(filteredRequest, response);
+    }
+
+    /**
+     * 从 JSON 请求体中读取账号（忽略大小写和首尾空白，避免换个写法绕过按账号的限流）
+     *
+     * @param body 请求体
+     * @return 没有账号或请求体不是 JSON 时返回 null
+     */
+    private String readAccount(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode account = objectMapper.readTree(body).path(ACCOUNT_FIELD);
+            if (!account.isTextual()) {
+                return null;
+            }
+            String value = StringUtils.trimToNull(account.asText());
+            if (value == null || value.length() > MAX_ACCOUNT_LENGTH) {
+                return null;
+            }
+            return value.toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            /* 格式错误的请求体由 Controller 返回参数错误 */
+            return null;
+        }
+    }
+
+    private static String trimTrailingSlash(String path) {
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, ResultUtils.error(ErrorCode.TOO_MANY_REQUEST));
+    }
+
+    private void rejectBodyTooLarge(String path, HttpServletResponse response) throws IOException {
+        meterRegistry.counter(METRIC_NAME, "path", path, "dimension", "body").increment();
+        writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, ResultUtils.error(ErrorCode.PARAMS_ERROR, "请求体过大"));
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, BaseResponse<?> body) throws IOException {
+        response.setStatus(status.value());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
+}
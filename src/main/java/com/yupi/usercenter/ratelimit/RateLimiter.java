@@ -0,0 +1,119 @@
+package com.yupi.usercenter.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yupi.usercenter.config.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限流器：先用本地令牌桶（Caffeine 分段的并发 Map + 无锁令牌桶）拦截，本地通过后再用 lua/rate_limit.lua 在 Redis 中按同样的限额检查，
+ * 所有节点共享限额；Redis 出错时只按本地限流放行（不因为 Redis 故障拒绝登录、注册）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Slf4j
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "usercenter:ratelimit:";
+
+    /**
+     * Redis 出错时最多每分钟记录一次日志
+     */
+    private static final long REDIS_WARN_INTERVAL_MILLIS = 60_000;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * 为 null 时只在本地限流
+     */
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisScript<Long> rateLimitScript;
+
+    private final LongAdder redisErrorCount = new LongAdder();
+
+    private final AtomicLong lastRedisWarnMillis = new AtomicLong();
+
+    public RateLimiter(RateLimitProperties properties, StringRedisTemplate stringRedisTemplate, RedisScript<Long> rateLimitScript) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxKeys())
+                .expireAfterAccess(properties.getLocalIdleSeconds(), TimeUnit.SECONDS)
+                .build();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.rateLimitScript = rateLimitScript;
+    }
+
+    /**
+     * 每个限流键取一个令牌
+     *
+     * @param path   接口路径（同一接口的 Redis 键带相同的 hash tag）
+     * @param keys   限流键，如 ip:127.0.0.1、account:yupi
+     * @param limits 每个键的限额
+     * @return 第一个没有令牌的键的下标，都通过时返回 -1
+     */
+    public int tryAcquire(String path, List<String> keys, List<RateLimitProperties.Limit> limits) {
+        long now = System.nanoTime();
+        for (int i = 0; i < keys.size(); i++) {
+            RateLimitProperties.Limit limit = limits.get(i);
+            TokenBucket bucket = buckets.get(path + ":" + keys.get(i),
+                    key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerMinute(), now));
+            if (!bucket.tryAcquire(now)) {
+                return i;
+            }
+        }
+        if (stringRedisTemplate == null || keys.isEmpty()) {
+            return -1;
+        }
+        return tryAcquireRedis(path, keys, limits);
+    }
+
+    /**
+     * Redis 限流出错（按本地限流放行）的次数
+     *
+     * @return
+     */
+    public long getRedisErrorCount() {
+        return redisErrorCount.sum();
+    }
+
+    /**
+     * 本地令牌桶个数
+     *
+     * @return
+     */
+    public long localSize() {
+        return buckets.estimatedSize();
+    }
+
+    private int tryAcquireRedis(String path, List<String> keys, List<RateLimitProperties.Limit> limits) {
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        Object[] args = new Object[keys.size() * 2];
+        for (int i = 0; i < keys.size(); i++) {
+            redisKeys.add(KEY_PREFIX + "{" + path + "}:" + keys.get(i));
+            RateLimitProperties.Limit limit = limits.get(i);
+            long intervalMicros = Math.max(1, TokenBucket.intervalNanos(limit.getRefillPerMinute()) / 1000);
+            args[2 * i] = String.valueOf(intervalMicros);
+            args[2 * i + 1] = String.valueOf(intervalMicros * limit.getCapacity());
+        }
+        try {
+            Long result = stringRedisTemplate.execute(rateLimitScript, redisKeys, args);
+            return result == null || result == 0 ? -1 : (int) (result - 1);
+        } catch (Exception e) {
+            redisErrorCount.increment();
+            long nowMillis = System.currentTimeMillis();
+            long last = lastRedisWarnMillis.get();
+            if (nowMillis - last >= REDIS_WARN_INTERVAL_MILLIS && lastRedisWarnMillis.compareAndSet(last, nowMillis)) {
+                log.warn("redis rate limit failed, fall back to local limit, path: {}", path, e);
+            }
+            return -1;
+        }
+    }
+}
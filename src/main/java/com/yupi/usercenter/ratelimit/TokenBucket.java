@@ -0,0 +1,73 @@
+package com.yupi.usercenter.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶：按 GCRA 算法只保存一个"理论到达时间"（tat），一次 CAS 完成补充和扣减
+ * 每 interval 补充一个令牌，最多 capacity 个：请求时 tat = max(tat, now) + interval，tat - now 超过 capacity * interval 时拒绝
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class TokenBucket {
+
+    /**
+     * 补充一个令牌的间隔（纳秒）
+     */
+    private final long intervalNanos;
+
+    /**
+     * 桶容量对应的时间窗口（纳秒）
+     */
+    private final long windowNanos;
+
+    /**
+     * 理论到达时间（纳秒），不大于当前时间表示桶是满的
+     */
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * 创建一个满的令牌桶
+     *
+     * @param capacity        桶容量
+     * @param refillPerMinute 每分钟补充的令牌数
+     * @param nowNanos        当前时间（System.nanoTime）
+     */
+    public TokenBucket(int capacity, double refillPerMinute, long nowNanos) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerMinute must be positive");
+        }
+        this.intervalNanos = intervalNanos(refillPerMinute);
+        this.windowNanos = intervalNanos * capacity;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 补充一个令牌的间隔（纳秒）
+     *
+     * @param refillPerMinute 每分钟补充的令牌数
+     * @return
+     */
+    public static long intervalNanos(double refillPerMinute) {
+        return Math.max(1, (long) (60_000_000_000L / refillPerMinute));
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @param nowNanos 当前时间（System.nanoTime）
+     * @return 有令牌时返回 true
+     */
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrivalTime.get();
+            /* 用差值比较，nanoTime 溢出时也正确 */
+            long newTat = (tat - nowNanos < 0 ? nowNanos : tat) + intervalNanos;
+            if (newTat - nowNanos > windowNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return true;
+            }
+        }
+    }
+}
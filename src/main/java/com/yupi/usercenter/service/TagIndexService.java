@@ -0,0 +1,64 @@
+package com.yupi.usercenter.service;
+
+import java.util.List;
+
+/**
+ * 标签倒排索引服务（标签 -> 用户 id 压缩位图）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface TagIndexService {
+
+    /**
+     * 从 user.tags 字段全量重建索引
+     */
+    void rebuild();
+
+    /**
+     * 索引是否已构建完成（未完成时调用方应回退到数据库查询）
+     *
+     * @return
+     */
+    boolean isReady();
+
+    /**
+     * 更新某个用户的标签
+     *
+     * @param userId   用户 id
+     * @param tagsJson 新的标签 JSON
+     */
+    void updateUserTags(long userId, String tagsJson);
+
+    /**
+     * 从索引中移除用户
+     *
+     * @param userId 用户 id
+     */
+    void removeUser(long userId);
+
+    /**
+     * 查询同时拥有所有标签的用户 id（升序）
+     *
+     * @param tagNameList 标签列表
+     * @return 用户 id 列表
+     */
+    List<Long> searchUserIds(List<String> tagNameList);
+
+    /**
+     * 查询同时拥有所有标签的用户 id，从 afterId 之后开始取 limit 个（升序）
+     *
+     * @param tagNameList 标签列表
+     * @param afterId     游标，只返回大于它的 id
+     * @param limit       最多返回个数
+     * @return 用户 id 列表
+     */
+    List<Long> searchUserIds(List<String> tagNameList, long afterId, int limit);
+
+    /**
+     * 线性扫描每个用户的标签编号数组，查询同时拥有所有标签的用户 id（升序）
+     *
+     * @param tagNameList 标签列表
+     * @return 用户 id 列表
+     */
+    List<Long> scanUserIds(List<String> tagNameList);
+}
@@ -0,0 +1,26 @@
+package com.yupi.usercenter.service;
+
+import com.yupi.usercenter.model.vo.UserVO;
+
+/**
+ * 已删除用户归档服务
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserArchiveService {
+
+    /**
+     * 把逻辑删除超过保留期的用户移到 user_archive 表（同一时间只有一个节点执行）
+     *
+     * @return 归档的用户数，其他节点正在执行时返回 -1
+     */
+    long archiveDeletedUsers();
+
+    /**
+     * 从 user_archive 恢复用户，并重新加入标签、用户名索引
+     *
+     * @param userId 用户 id
+     * @return 恢复后的脱敏用户
+     */
+    UserVO restoreUser(long userId);
+}
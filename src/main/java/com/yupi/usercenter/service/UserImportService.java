@@ -0,0 +1,25 @@
+package com.yupi.usercenter.service;
+
+import com.yupi.usercenter.model.domain.response.UserImportResult;
+import com.yupi.usercenter.model.enums.UserImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 用户批量导入服务
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserImportService {
+
+    /**
+     * 批量导入用户（边读边导入，按批提交，前面已提交的批不会因为后面的行失败而回滚）
+     *
+     * @param inputStream 导入数据（UTF-8）
+     * @param format      数据格式
+     * @return 导入结果
+     * @throws IOException 读取失败
+     */
+    UserImportResult importUsers(InputStream inputStream, UserImportFormat format) throws IOException;
+}
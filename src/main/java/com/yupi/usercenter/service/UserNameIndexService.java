@@ -0,0 +1,59 @@
+package com.yupi.usercenter.service;
+
+import com.yupi.usercenter.model.domain.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户名、账号的 n-gram（1 ~ 3 个字符）倒排索引服务，用于子串搜索
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserNameIndexService {
+
+    /**
+     * 从 user.username、user.userAccount 全量重建索引
+     */
+    void rebuild();
+
+    /**
+     * 索引是否已构建完成（未完成时调用方应回退到数据库查询）
+     *
+     * @return
+     */
+    boolean isReady();
+
+    /**
+     * 更新某个用户的用户名、账号
+     *
+     * @param userId      用户 id
+     * @param username    新的用户名，为 null 时保持不变
+     * @param userAccount 新的账号，为 null 时保持不变
+     */
+    void updateUser(long userId, String username, String userAccount);
+
+    /**
+     * 批量加入用户（批量导入后调用）
+     *
+     * @param userList 用户，只需要 id、username、userAccount
+     */
+    void addUsers(Collection<User> userList);
+
+    /**
+     * 从索引中移除用户
+     *
+     * @param userId 用户 id
+     */
+    void removeUser(long userId);
+
+    /**
+     * 查询用户名或账号包含关键词（忽略大小写）的用户 id，从 afterId 之后开始取 limit 个（升序）
+     *
+     * @param keyword 关键词
+     * @param afterId 游标，只返回大于它的 id
+     * @param limit   最多返回个数
+     * @return 用户 id 列表
+     */
+    List<Long> searchUserIds(String keyword, long afterId, int limit);
+}
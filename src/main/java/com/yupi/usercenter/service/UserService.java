@@ -1,8 +1,14 @@
 package com.yupi.usercenter.service;
 
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.common.CursorPage;
 import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.model.vo.UserVO;
 import com.baomidou.mybatisplus.extension.service.IService;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -30,9 +36,10 @@ public interface UserService extends IService<User> {
      * @param userAccount  用户账户
      * @param userPassword 用户密码
      * @param request
+     * @param response     令牌模式下在响应头中下发令牌
      * @return 脱敏后的用户信息
      */
-    User userLogin(String userAccount, String userPassword, HttpServletRequest request);
+    UserVO userLogin(String userAccount, String userPassword, HttpServletRequest request, HttpServletResponse response);
 
     /**
      * 用户脱敏
@@ -40,7 +47,16 @@ public interface UserService extends IService<User> {
      * @param originUser
      * @return
      */
-    User getSafetyUser(User originUser);
+    UserVO getSafetyUser(User originUser);
+
+
+    /**
+     * 根据 id 获取脱敏后的用户（走本地 + Redis 两级缓存）
+     *
+     * @param userId 用户 id
+     * @return 脱敏后的用户，不存在时返回 null
+     */
+    UserVO getSafetyUserById(long userId);
 
 
     /**
@@ -51,6 +67,14 @@ public interface UserService extends IService<User> {
      */
     int userLogout(HttpServletRequest request);
 
+    /**
+     * 刷新令牌（令牌模式），新令牌写入响应头，旧的刷新令牌失效
+     *
+     * @param request  请求头中携带刷新令牌
+     * @param response
+     */
+    void refreshToken(HttpServletRequest request, HttpServletResponse response);
+
 
     /**
      * 根据标签搜索用户
@@ -58,42 +82,58 @@ public interface UserService extends IService<User> {
      * @param tagNameList
      * @return
      */
-    List<User> searchUsersByTags(List<String> tagNameList);
+    List<UserVO> searchUsersByTags(List<String> tagNameList);
 
     /**
-     * 根据标签搜索用户(内存)
+     * 根据标签搜索用户（游标分页）
      *
      * @param tagNameList
+     * @param afterId     游标，上一页的 nextCursor，第一页传 null
+     * @param pageSize    每页条数，为 null 时取默认值
      * @return
      */
-    List<User> searchUsersByTags2(List<String> tagNameList);
+    CursorPage<UserVO> searchUsersByTags(List<String> tagNameList, Long afterId, Integer pageSize);
 
     /**
-     * 用户信息修改
-     * @param user
-     * @param loginUser
+     * 根据用户名或账号搜索用户（游标分页）
+     *
+     * @param username 用户名或账号（子串匹配，忽略大小写），为空时查询全部
+     * @param afterId  游标，上一页的 nextCursor，第一页传 null
+     * @param pageSize 每页条数，为 null 时取默认值
      * @return
      */
-    int updateUser(User user,User loginUser);
+    CursorPage<UserVO> searchUsers(String username, Long afterId, Integer pageSize);
 
     /**
-     * 获取当前用户信息
-     * @param request
+     * 以 NDJSON（每行一个 JSON）格式导出脱敏后的用户，逐行写出，内存占用与用户总数无关
+     *
+     * @param username     用户名或账号（子串匹配，与 searchUsers 相同），为空时导出全部
+     * @param outputStream 输出流
+     * @return 导出的用户数
+     * @throws IOException
+     */
+    long exportUsers(String username, OutputStream outputStream) throws IOException;
+
+    /**
+     * 根据标签搜索用户(内存)
+     *
+     * @param tagNameList
      * @return
      */
-    User getLoginInUser(HttpServletRequest request);
+    List<UserVO> searchUsersByTags2(List<String> tagNameList);
 
     /**
-     * 是否为管理员
-     * @param request
+     * 用户信息修改
+     * @param user 要更新的用户信息（必须带上读取时的 version，已被他人修改时抛出 CONFLICT）
+     * @param loginUser
      * @return
      */
-    boolean isAdmin(HttpServletRequest request);
+    int updateUser(User user, UserPrincipal loginUser);
 
     /**
      * 是否为管理员
      * @param loginUser
      * @return
      */
-    boolean isAdmin(User loginUser);
+    boolean isAdmin(UserPrincipal loginUser);
 }
@@ -0,0 +1,27 @@
+package com.yupi.usercenter.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.yupi.usercenter.model.domain.UserTag;
+
+/**
+ * 用户标签关联服务
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public interface UserTagService extends IService<UserTag> {
+
+    /**
+     * 用新的标签 JSON 覆盖用户在 user_tag 中的标签
+     *
+     * @param userId   用户 id
+     * @param tagsJson 标签 JSON
+     */
+    void replaceUserTags(long userId, String tagsJson);
+
+    /**
+     * 删除用户的所有标签
+     *
+     * @param userId 用户 id
+     */
+    void removeUserTags(long userId);
+}
@@ -0,0 +1,297 @@
+package com.yupi.usercenter.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.service.TagIndexService;
+import com.yupi.usercenter.utils.TagDictionary;
+import com.yupi.usercenter.utils.TagUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 标签倒排索引服务实现
+ * 启动时和定时从 user.tags 构建，注册 / 修改 / 删除用户的事务提交后由 UserIndexSyncManager 更新（包括其他节点的修改）
+ * 重建期间的修改记入变更日志，切换到新索引时重放，不会丢失
+ * 标签统一经过字典编码：位图按标签编号存放，每个用户的标签保存为升序 int[]
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Service
+@Slf4j
+public class TagIndexServiceImpl implements TagIndexService {
+
+    /**
+     * 构建索引时每批读取的用户数
+     */
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    @Resource
+    private UserMapper userMapper;
+
+    /* 以下结构本身不是线程安全的，统一由读写锁保护，重建时整体替换 */
+
+    private TagDictionary tagDictionary = new TagDictionary();
+
+    /**
+     * 标签编号 -> 用户 id 位图
+     */
+    private List<Roaring64NavigableMap> tagBitmaps = new ArrayList<>();
+
+    /**
+     * 用户 id -> 标签编号（升序）
+     */
+    private Map<Long, int[]> userTagIds = new HashMap<>();
+
+    /**
+     * 重建期间的修改（用户 id -> 标签 JSON，null 表示删除），不在重建时为 null
+     */
+    private Map<Long, Optional<String>> changeLog;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            /* 构建失败不影响启动，搜索会回退到数据库 */
+            log.error("build tag index failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changeLog = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            build();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changeLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("tag index built, users: {}, tags: {}, cost: {}ms",
+                userTagIds.size(), tagDictionary.size(), System.currentTimeMillis() - start);
+    }
+
+    private void build() {
+        TagDictionary newDictionary = new TagDictionary();
+        List<Roaring64NavigableMap> newBitmaps = new ArrayList<>();
+        Map<Long, int[]> newUserTagIds = new HashMap<>();
+        long lastId = 0;
+        while (true) {
+            /* 按 id 分批读取，只取 id 和 tags 两列 */
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "tags")
+                    .gt("id", lastId)
+                    .isNotNull("tags")
+                    .orderByAsc("id")
+                    .last("limit " + BUILD_BATCH_SIZE);
+            List<User> userList = userMapper.selectList(queryWrapper);
+            for (User user : userList) {
+                int[] tagIds = newDictionary.encode(TagUtils.parseTags(user.getTags()));
+                addUser(newBitmaps, newUserTagIds, user.getId(), tagIds);
+            }
+            if (userList.size() < BUILD_BATCH_SIZE) {
+                break;
+            }
+            lastId = userList.get(userList.size() - 1).getId();
+        }
+        for (Roaring64NavigableMap bitmap : newBitmaps) {
+            bitmap.runOptimize();
+        }
+        lock.writeLock().lock();
+        try {
+            tagDictionary = newDictionary;
+            tagBitmaps = newBitmaps;
+            userTagIds = newUserTagIds;
+            /* 重放构建期间的修改（构建时读到的可能是修改前的数据） */
+            changeLog.forEach((userId, tagsJson) -> {
+                removeUserInternal(userId);
+                tagsJson.ifPresent(json -> addUser(tagBitmaps, userTagIds, userId, tagDictionary.encode(TagUtils.parseTags(json))));
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void updateUserTags(long userId, String tagsJson) {
+        Set<String> tagSet = TagUtils.parseTags(tagsJson);
+        lock.writeLock().lock();
+        try {
+            removeUserInternal(userId);
+            addUser(tagBitmaps, userTagIds, userId, tagDictionary.encode(tagSet));
+            recordChange(userId, tagsJson == null ? "" : tagsJson);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            removeUserInternal(userId);
+            recordChange(userId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* 重建期间记录修改（调用方需持有写锁），同一用户只保留最后一次 */
+    private void recordChange(long userId, String tagsJson) {
+        if (changeLog != null) {
+            changeLog.remove(userId);
+            changeLog.put(userId, Optional.ofNullable(tagsJson));
+        }
+    }
+
+    @Override
+    public List<Long> searchUserIds(List<String> tagNameList) {
+        if (tagNameList == null || tagNameList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap result = intersect(tagNameList);
+            if (result == null) {
+                return Collections.emptyList();
+            }
+            List<Long> userIdList = new ArrayList<>((int) result.getLongCardinality());
+            LongIterator iterator = result.getLongIterator();
+            while (iterator.hasNext()) {
+                userIdList.add(iterator.next());
+            }
+            return userIdList;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> searchUserIds(List<String> tagNameList, long afterId, int limit) {
+        if (tagNameList == null || tagNameList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap result = intersect(tagNameList);
+            if (result == null) {
+                return Collections.emptyList();
+            }
+            /* rankLong(afterId) = 小于等于 afterId 的个数，即第一个大于 afterId 的下标 */
+            long cardinality = result.getLongCardinality();
+            long from = afterId < 0 ? 0 : result.rankLong(afterId);
+            long to = Math.min(cardinality, from + limit);
+            List<Long> userIdList = new ArrayList<>((int) Math.max(0, to - from));
+            for (long i = from; i < to; i++) {
+                userIdList.add(result.select(i));
+            }
+            return userIdList;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> scanUserIds(List<String> tagNameList) {
+        if (tagNameList == null || tagNameList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            int[] queryTagIds = tagDictionary.encodeExisting(tagNameList);
+            if (queryTagIds == null) {
+                return Collections.emptyList();
+            }
+            List<Long> userIdList = new ArrayList<>();
+            for (Map.Entry<Long, int[]> entry : userTagIds.entrySet()) {
+                if (TagDictionary.containsAll(entry.getValue(), queryTagIds)) {
+                    userIdList.add(entry.getKey());
+                }
+            }
+            Collections.sort(userIdList);
+            return userIdList;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 对查询标签的位图求交集（调用方需持有读锁）
+     *
+     * @param tagNameList 标签列表
+     * @return 交集，没有用户匹配时返回 null
+     */
+    private Roaring64NavigableMap intersect(List<String> tagNameList) {
+        int[] queryTagIds = tagDictionary.encodeExisting(tagNameList);
+        if (queryTagIds == null) {
+            return null;
+        }
+        /* 先找出最小的位图，从它开始求交集 */
+        List<Roaring64NavigableMap> bitmapList = new ArrayList<>(queryTagIds.length);
+        for (int tagId : queryTagIds) {
+            if (tagId >= tagBitmaps.size() || tagBitmaps.get(tagId).isEmpty()) {
+                return null;
+            }
+            bitmapList.add(tagBitmaps.get(tagId));
+        }
+        bitmapList.sort(Comparator.comparingLong(Roaring64NavigableMap::getLongCardinality));
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        result.or(bitmapList.get(0));
+        for (int i = 1; i < bitmapList.size() && !result.isEmpty(); i++) {
+            result.and(bitmapList.get(i));
+        }
+        return result;
+    }
+
+    private void addUser(List<Roaring64NavigableMap> bitmaps, Map<Long, int[]> userTagIdMap, long userId, int[] tagIds) {
+        if (tagIds.length == 0) {
+            return;
+        }
+        userTagIdMap.put(userId, tagIds);
+        for (int tagId : tagIds) {
+            while (bitmaps.size() <= tagId) {
+                bitmaps.add(new Roaring64NavigableMap());
+            }
+            bitmaps.get(tagId).addLong(userId);
+        }
+    }
+
+    /* 根据用户原来的标签编号，只从对应的位图中移除 */
+    private void removeUserInternal(long userId) {
+        int[] oldTagIds = userTagIds.remove(userId);
+        if (oldTagIds == null) {
+            return;
+        }
+        for (int tagId : oldTagIds) {
+            tagBitmaps.get(tagId).removeLong(userId);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.yupi.usercenter.service.impl;
+
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.config.UserArchiveProperties;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.manager.UserBloomFilterManager;
+import com.yupi.usercenter.manager.UserCacheManager;
+import com.yupi.usercenter.manager.UserIndexSyncManager;
+import com.yupi.usercenter.mapper.UserArchiveMapper;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.service.UserArchiveService;
+import com.yupi.usercenter.service.UserService;
+import com.yupi.usercenter.service.UserTagService;
+import com.yupi.usercenter.utils.DuplicateKeyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已删除用户归档服务实现
+ * 按 (isDelete, id) 索引从上一批的最大 id 往后分批查询已删除用户（不扫描未删除的用户），
+ * 每批在一个事务中 insert into user_archive select ... + delete，批与批之间暂停，减小对主从复制和线上查询的影响
+ * 删除时间按 updateTime 计算：逻辑删除后再修改该行（如手工执行 SQL）会重新开始计算保留期
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Service
+@Slf4j
+public class UserArchiveServiceImpl implements UserArchiveService {
+
+    /**
+     * 归档锁，保证同一时间只有一个节点在归档
+     */
+    private static final String ARCHIVE_LOCK_KEY = "usercenter:archive:lock";
+
+    private static final long ARCHIVE_LOCK_SECONDS = 2 * 60 * 60;
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    @Resource
+    private UserArchiveMapper userArchiveMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private UserArchiveProperties userArchiveProperties;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private UserTagService userTagService;
+
+    @Resource
+    private UserIndexSyncManager userIndexSyncManager;
+
+    @Resource
+    private UserBloomFilterManager userBloomFilterManager;
+
+    @Resource
+    private UserCacheManager userCacheManager;
+
+    @Override
+    public long archiveDeletedUsers() {
+        String lockValue = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(ARCHIVE_LOCK_KEY, lockValue, ARCHIVE_LOCK_SECONDS, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("user archive is running on another node, skip");
+            return -1;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            /* 锁过期前停止，剩下的下次再归档 */
+            long deadline = start + ARCHIVE_LOCK_SECONDS * 1000 / 2;
+            Date deletedBefore = new Date(start - userArchiveProperties.getRetentionDays() * MILLIS_PER_DAY);
+            int batchSize = Math.max(1, userArchiveProperties.getBatchSize());
+            long total = 0;
+            long afterId = 0;
+            while (System.currentTimeMillis() < deadline && !Thread.currentThread().isInterrupted()) {
+                List<Long> userIdList = userArchiveMapper.selectArchivableUserIds(afterId, batchSize, deletedBefore);
+                if (userIdList.isEmpty()) {
+                    break;
+                }
+                Integer count = transactionTemplate.execute(status -> {
+                    userArchiveMapper.insertArchivedUsers(userIdList);
+                    return userArchiveMapper.deleteArchivedUsers(userIdList);
+                });
+                total += count == null ? 0 : count;
+                afterId = userIdList.get(userIdList.size() - 1);
+                if (userIdList.size() < batchSize) {
+                    break;
+                }
+                sleep(userArchiveProperties.getBatchIntervalMillis());
+            }
+            log.info("archive deleted users finished, users: {}, cost: {}ms", total, System.currentTimeMillis() - start);
+            return total;
+        } finally {
+            if (lockValue.equals(stringRedisTemplate.opsForValue().get(ARCHIVE_LOCK_KEY))) {
+                stringRedisTemplate.delete(ARCHIVE_LOCK_KEY);
+            }
+        }
+    }
+
+    @Override
+    public UserVO restoreUser(long userId) {
+        if (userId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        User user;
+        try {
+            user = transactionTemplate.execute(status -> {
+                if (userArchiveMapper.restoreUser(userId) == 0) {
+                    throw new BusinessException(ErrorCode.NULL_ERROR, "归档中不存在该用户");
+                }
+                userArchiveMapper.deleteArchive(userId);
+                /* 删除时已移除标签关联，按 tags 重新生成 */
+                User restoredUser = userMapper.selectById(userId);
+                if (StringUtils.isNotBlank(restoredUser.getTags())) {
+                    userTagService.replaceUserTags(userId, restoredUser.getTags());
+                }
+                return restoredUser;
+            });
+        } catch (DuplicateKeyException e) {
+            /* 归档后账号或星球编号已被新用户使用 */
+            String message = DuplicateKeyUtils.getDuplicateMessage(e);
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, message == null ? "数据重复" : message);
+        }
+        /* 事务提交后再加入内存索引 */
+        userIndexSyncManager.userChanged(userId);
+        userBloomFilterManager.addUser(user.getUserAccount(), user.getPlanetCode());
+        userCacheManager.invalidate(userId);
+        log.info("user restored from archive, userId: {}", userId);
+        return userService.getSafetyUserById(userId);
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.yupi.usercenter.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.config.UserImportProperties;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.manager.UserBloomFilterManager;
+import com.yupi.usercenter.manager.UserIndexSyncManager;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.model.domain.request.UserImportRow;
+import com.yupi.usercenter.model.domain.response.UserImportResult;
+import com.yupi.usercenter.model.domain.response.UserImportRowResult;
+import com.yupi.usercenter.model.enums.UserImportFormat;
+import com.yupi.usercenter.model.enums.UserValidationError;
+import com.yupi.usercenter.service.UserImportService;
+import com.yupi.usercenter.utils.CsvUtils;
+import com.yupi.usercenter.utils.DesensitizeUtils;
+import com.yupi.usercenter.utils.DuplicateKeyUtils;
+import com.yupi.usercenter.utils.PasswordUtils;
+import com.yupi.usercenter.utils.UserValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 用户批量导入服务实现
+ * 每读满一批：并行解析、校验、加密（同时计算脱敏后的手机号、邮箱） -> 文件内去重 -> 布隆过滤器 + IN 查询与已有用户去重 -> JDBC 批量插入（一批一个事务）
+ * 连接串需开启 rewriteBatchedStatements=true，MySQL 驱动才会把一批 insert 合并成多值 insert
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String INSERT_SQL = "insert into user (userAccount, userPassword, planetCode, username, avatarUrl, gender, phone, email, "
+            + "maskedPhone, maskedEmail) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] REQUIRED_COLUMNS = {"userAccount", "userPassword", "planetCode"};
+
+    private static final String DB_ERROR_MESSAGE = "数据库写入失败";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private UserImportProperties userImportProperties;
+
+    @Resource
+    private UserBloomFilterManager userBloomFilterManager;
+
+    @Resource
+    private UserIndexSyncManager userIndexSyncManager;
+
+    @Override
+    public UserImportResult importUsers(InputStream inputStream, UserImportFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        int chunkSize = Math.max(1, userImportProperties.getChunkSize());
+        UserImportResult result = new UserImportResult();
+        /* 本次导入中已经出现过的账号、星球编号，用于文件内去重 */
+        Set<String> seenUserAccounts = new HashSet<>();
+        Set<String> seenPlanetCodes = new HashSet<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String[] header = null;
+        List<ImportItem> chunk = new ArrayList<>(chunkSize);
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            if (format == UserImportFormat.CSV && header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+            if (result.getTotalCount() >= userImportProperties.getMaxRows()) {
+                result.setTruncated(true);
+                break;
+            }
+            result.setTotalCount(result.getTotalCount() + 1);
+            chunk.add(new ImportItem(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                boolean completed = importChunkSafely(chunk, format, header, seenUserAccounts, seenPlanetCodes, result);
+                chunk.clear();
+                if (!completed) {
+                    break;
+                }
+            }
+        }
+        if (!chunk.isEmpty() && result.getErrorMessage() == null) {
+            importChunkSafely(chunk, format, header, seenUserAccounts, seenPlanetCodes, result);
+        }
+        result.setFailCount(result.getFailRows().size());
+        result.setCostMillis(System.currentTimeMillis() - start);
+        log.info("import users finished, total: {}, success: {}, fail: {}, cost: {}ms",
+                result.getTotalCount(), result.getSuccessCount(), result.getFailCount(), result.getCostMillis());
+        return result;
+    }
+
+    /**
+     * 导入一批；数据库不可用时把本批没有导入的行记为失败，设置中断原因后返回 false，已导入的批次照常返回
+     */
+    private boolean importChunkSafely(List<ImportItem> chunk, UserImportFormat format, String[] header,
+                                      Set<String> seenUserAccounts, Set<String> seenPlanetCodes, UserImportResult result) {
+        try {
+            if (importChunk(chunk, format, header, seenUserAccounts, seenPlanetCodes, result)) {
+                return true;
+            }
+        } catch (DataAccessException e) {
+            /* 查重失败，本批还没有插入任何行 */
+            log.error("import chunk failed, first line: {}", chunk.get(0).lineNumber, e);
+            for (ImportItem item : chunk) {
+                String userAccount = item.row == null ? null : item.row.getUserAccount();
+                String error = item.error == null ? DB_ERROR_MESSAGE : item.error;
+                result.getFailRows().add(new UserImportRowResult(item.lineNumber, userAccount, error));
+            }
+        }
+        result.setErrorMessage("数据库不可用，导入已中断：已读取的行中除 failRows 外均已导入，第 "
+                + chunk.get(chunk.size() - 1).lineNumber + " 行之后没有读取");
+        return false;
+    }
+
+    /**
+     * 导入一批
+     *
+     * @return 数据库不可用导致本批没有写完时返回 false
+     */
+    private boolean importChunk(List<ImportItem> chunk, UserImportFormat format, String[] header,
+                             Set<String> seenUserAccounts, Set<String> seenPlanetCodes, UserImportResult result) {
+        // 1. 并行解析、校验、加密（只读写各自的 item）
+        IntStream.range(0, chunk.size()).parallel().forEach(i -> prepare(chunk.get(i), format, header));
+        // 2. 文件内去重（按行号顺序，先出现的行保留）
+        for (ImportItem item : chunk) {
+            if (item.error != null) {
+                continue;
+            }
+            if (!seenUserAccounts.add(item.row.getUserAccount())) {
+                item.error = "文件中账号重复";
+            } else if (!seenPlanetCodes.add(item.row.getPlanetCode())) {
+                item.error = "文件中编号重复";
+            }
+        }
+        // 3. 与已有用户去重：布隆过滤器判定一定不存在的跳过，其余每批各一次 IN 查询
+        List<ImportItem> readyList = getReadyList(chunk);
+        if (!readyList.isEmpty()) {
+            List<String> maybeUserAccounts = userBloomFilterManager.filterMightContainUserAccounts(
+                    readyList.stream().map(item -> item.row.getUserAccount()).collect(Collectors.toList()));
+            List<String> maybePlanetCodes = userBloomFilterManager.filterMightContainPlanetCodes(
+                    readyList.stream().map(item -> item.row.getPlanetCode()).collect(Collectors.toList()));
+            Set<String> existingUserAccounts = maybeUserAccounts.isEmpty()
+                    ? Collections.emptySet() : new HashSet<>(userMapper.selectExistingUserAccounts(maybeUserAccounts));
+            Set<String> existingPlanetCodes = maybePlanetCodes.isEmpty()
+                    ? Collections.emptySet() : new HashSet<>(userMapper.selectExistingPlanetCodes(maybePlanetCodes));
+            for (ImportItem item : readyList) {
+                if (existingUserAccounts.contains(item.row.getUserAccount())) {
+                    item.error = "账号重复";
+                } else if (existingPlanetCodes.contains(item.row.getPlanetCode())) {
+                    item.error = "编号重复";
+                }
+            }
+            readyList = getReadyList(chunk);
+        }
+        // 4. 批量插入
+        boolean completed = true;
+        if (!readyList.isEmpty()) {
+            completed = insertBatch(readyList);
+            List<String> userAccountList = new ArrayList<>(readyList.size());
+            List<String> planetCodeList = new ArrayList<>(readyList.size());
+            for (ImportItem item : readyList) {
+                if (item.error == null) {
+                    userAccountList.add(item.row.getUserAccount());
+                    planetCodeList.add(item.row.getPlanetCode());
+                }
+            }
+            userBloomFilterManager.addUsers(userAccountList, planetCodeList);
+            addToIndex(userAccountList);
+            result.setSuccessCount(result.getSuccessCount() + userAccountList.size());
+        }
+        for (ImportItem item : chunk) {
+            if (item.error != null) {
+                String userAccount = item.row == null ? null : item.row.getUserAccount();
+                result.getFailRows().add(new UserImportRowResult(item.lineNumber, userAccount, item.error));
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * 批量插入没有返回 id，按账号查出 id 后加入内存索引（并通知其他节点）
+     * 查询失败时只记录日志（用户已经导入，索引在下次定时重建时补上）
+     */
+    private void addToIndex(List<String> userAccountList) {
+        if (userAccountList.isEmpty()) {
+            return;
+        }
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id").in("userAccount", userAccountList);
+        try {
+            List<Long> userIdList = userMapper.selectList(queryWrapper).stream().map(User::getId).collect(Collectors.toList());
+            userIndexSyncManager.usersChanged(userIdList);
+        } catch (DataAccessException e) {
+            log.warn("add imported users to index failed, users: {}", userAccountList.size(), e);
+        }
+    }
+
+    /**
+     * 整批在一个事务中插入；唯一索引冲突（并发注册）或某行数据不合法（如超过列长度）时，回滚后逐行插入，出错的行记为失败
+     * 数据库不可用时不再逐行重试，本批没有插入的行都记为失败
+     *
+     * @return 数据库不可用导致本批没有写完时返回 false
+     */
+    private boolean insertBatch(List<ImportItem> readyList) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, readyList, readyList.size(), this::setInsertParameters));
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.info("batch insert conflicted, fallback to row by row, rows: {}", readyList.size());
+        } catch (DataAccessResourceFailureException e) {
+            log.error("batch insert failed, rows: {}", readyList.size(), e);
+            readyList.forEach(item -> item.error = DB_ERROR_MESSAGE);
+            return false;
+        } catch (DataAccessException e) {
+            log.warn("batch insert failed, fallback to row by row, rows: {}", readyList.size(), e);
+        }
+        for (int i = 0; i < readyList.size(); i++) {
+            ImportItem item = readyList.get(i);
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> setInsertParameters(ps, item));
+            } catch (DuplicateKeyException e) {
+                String message = DuplicateKeyUtils.getDuplicateMessage(e);
+                item.error = message == null ? "数据重复" : message;
+            } catch (DataAccessResourceFailureException e) {
+                log.error("insert failed, line: {}", item.lineNumber, e);
+                readyList.subList(i, readyList.size()).forEach(rest -> rest.error = DB_ERROR_MESSAGE);
+                return false;
+            } catch (DataAccessException e) {
+                log.warn("insert failed, line: {}, cause: {}", item.lineNumber, e.getMostSpecificCause().getMessage());
+                item.error = e instanceof DataIntegrityViolationException ? "数据不合法（超过长度或格式错误）" : DB_ERROR_MESSAGE;
+            }
+        }
+        return true;
+    }
+
+    private void setInsertParameters(PreparedStatement ps, ImportItem item) throws SQLException {
+        UserImportRow row = item.row;
+        ps.setString(1, row.getUserAccount());
+        ps.setString(2, item.encryptPassword);
+        ps.setString(3, row.getPlanetCode());
+        ps.setString(4, row.getUsername());
+        ps.setString(5, row.getAvatarUrl());
+        if (row.getGender() == null) {
+            ps.setNull(6, Types.TINYINT);
+        } else {
+            ps.setInt(6, row.getGender());
+        }
+        ps.setString(7, row.getPhone());
+        ps.setString(8, row.getEmail());
+        ps.setString(9, item.maskedPhone);
+        ps.setString(10, item.maskedEmail);
+    }
+
+    /**
+     * 解析、校验并加密密码，失败时设置 item.error
+     */
+    private void prepare(ImportItem item, UserImportFormat format, String[] header) {
+        try {
+            item.row = format == UserImportFormat.NDJSON
+                    ? objectMapper.readValue(item.line, UserImportRow.class)
+                    : parseCsvRow(header, item.line);
+        } catch (Exception e) {
+            item.error = "格式错误";
+            return;
+        }
+        /* NDJSON 中单独一行 null 也是合法 JSON，readValue 返回 null */
+        if (item.row == null) {
+            item.error = "格式错误";
+            return;
+        }
+        UserImportRow row = item.row;
+        /* 导入没有校验密码，用密码本身代替 */
+        UserValidationError validationError = UserValidator.validateRegister(row.getUserAccount(), row.getUserPassword(),
+                row.getUserPassword(), row.getPlanetCode());
+        if (validationError != null) {
+            item.error = validationError.getMessage();
+            return;
+        }
+        item.encryptPassword = PasswordUtils.encrypt(row.getUserPassword());
+        item.maskedPhone = DesensitizeUtils.maskPhone(row.getPhone());
+        item.maskedEmail = DesensitizeUtils.maskEmail(row.getEmail());
+    }
+
+    private String[] parseHeader(String line) {
+        /* 去掉 UTF-8 BOM */
+        if (line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+        }
+        String[] header = CsvUtils.parseLine(line).stream().map(String::trim).toArray(String[]::new);
+        List<String> headerList = Arrays.asList(header);
+        for (String column : REQUIRED_COLUMNS) {
+            if (!headerList.contains(column)) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "表头缺少 " + column);
+            }
+        }
+        return header;
+    }
+
+    private UserImportRow parseCsvRow(String[] header, String line) {
+        List<String> fields = CsvUtils.parseLine(line);
+        UserImportRow row = new UserImportRow();
+        for (int i = 0; i < header.length && i < fields.size(); i++) {
+            String value = StringUtils.trimToNull(fields.get(i));
+            switch (header[i]) {
+                case "userAccount":
+                    row.setUserAccount(value);
+                    break;
+                case "userPassword":
+                    row.setUserPassword(value);
+                    break;
+                case "planetCode":
+                    row.setPlanetCode(value);
+                    break;
+                case "username":
+                    row.setUsername(value);
+                    break;
+                case "avatarUrl":
+                    row.setAvatarUrl(value);
+                    break;
+                case "gender":
+                    row.setGender(value == null ? null : Integer.valueOf(value));
+                    break;
+                case "phone":
+                    row.setPhone(value);
+                    break;
+                case "email":
+                    row.setEmail(value);
+                    break;
+                default:
+                    /* 不认识的列忽略 */
+                    break;
+            }
+        }
+        return row;
+    }
+
+    private List<ImportItem> getReadyList(List<ImportItem> chunk) {
+        return chunk.stream().filter(item -> item.error == null).collect(Collectors.toList());
+    }
+
+    /**
+     * 导入过程中的一行
+     */
+    private static class ImportItem {
+
+        private final int lineNumber;
+
+        private final String line;
+
+        private UserImportRow row;
+
+        private String encryptPassword;
+
+        private String maskedPhone;
+
+        private String maskedEmail;
+
+        private String error;
+
+        private ImportItem(int lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.yupi.usercenter.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.service.UserNameIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * 用户名、账号的 n-gram 倒排索引服务实现
+ * 每个用户保存小写的 "用户名\0账号"，按其中每 1、2、3 个连续字符建立 gram -> 用户 id 位图
+ * 查询：关键词少于 3 个字符时直接取对应的单字、双字位图（结果就是精确的）；
+ * 不少于 3 个字符时对关键词的三元组位图求交集得到候选用户，再逐个校验是否真的包含关键词。都按 id 升序，取够 limit 个就停止
+ * 启动时和定时从数据库构建，注册 / 修改 / 删除 / 批量导入用户的事务提交后由 UserIndexSyncManager 更新（包括其他节点的修改）
+ * 重建期间的修改记入变更日志，切换到新索引时重放，不会丢失
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Service
+@Slf4j
+public class UserNameIndexServiceImpl implements UserNameIndexService {
+
+    /**
+     * 构建索引时每批读取的用户数
+     */
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * 用户名和账号之间的分隔符，包含它的三元组不建索引
+     */
+    private static final char SEPARATOR = '\0';
+
+    @Resource
+    private UserMapper userMapper;
+
+    /* 以下结构本身不是线程安全的，统一由读写锁保护，重建时整体替换 */
+
+    /**
+     * gram（1 ~ 3 个 char 按 16 位拼成的 long，字符都不为 0，不同长度不会冲突）-> 用户 id 位图
+     */
+    private Map<Long, Roaring64NavigableMap> gramBitmaps = new HashMap<>();
+
+    /**
+     * 用户 id -> 小写的 "用户名\0账号"
+     */
+    private Map<Long, String> userTexts = new HashMap<>();
+
+    /**
+     * 重建期间的修改（用户 id -> 小写的 "用户名\0账号"，null 表示删除），不在重建时为 null
+     */
+    private Map<Long, Optional<String>> changeLog;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            /* 构建失败不影响启动，搜索会回退到数据库 */
+            log.error("build user name index failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changeLog = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            build();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changeLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("user name index built, users: {}, grams: {}, cost: {}ms",
+                userTexts.size(), gramBitmaps.size(), System.currentTimeMillis() - start);
+    }
+
+    private void build() {
+        Map<Long, Roaring64NavigableMap> newGramBitmaps = new HashMap<>();
+        Map<Long, String> newUserTexts = new HashMap<>();
+        long lastId = 0;
+        while (true) {
+            /* 按 id 分批读取，只取 id、username、userAccount 三列 */
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "username", "userAccount")
+                    .gt("id", lastId)
+                    .orderByAsc("id")
+                    .last("limit " + BUILD_BATCH_SIZE);
+            List<User> userList = userMapper.selectList(queryWrapper);
+            for (User user : userList) {
+                addUser(newGramBitmaps, newUserTexts, user.getId(), toText(user.getUsername(), user.getUserAccount()));
+            }
+            if (userList.size() < BUILD_BATCH_SIZE) {
+                break;
+            }
+            lastId = userList.get(userList.size() - 1).getId();
+        }
+        for (Roaring64NavigableMap bitmap : newGramBitmaps.values()) {
+            bitmap.runOptimize();
+        }
+        lock.writeLock().lock();
+        try {
+            gramBitmaps = newGramBitmaps;
+            userTexts = newUserTexts;
+            /* 重放构建期间的修改（构建时读到的可能是修改前的数据） */
+            changeLog.forEach((userId, text) -> {
+                removeUserInternal(userId);
+                text.ifPresent(value -> addUser(gramBitmaps, userTexts, userId, value));
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void updateUser(long userId, String username, String userAccount) {
+        if (username == null && userAccount == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            /* 只修改了其中一个时，另一个取索引中原来的值 */
+            String oldText = userTexts.get(userId);
+            if (oldText != null) {
+                int index = oldText.indexOf(SEPARATOR);
+                if (username == null) {
+                    username = oldText.substring(0, index);
+                }
+                if (userAccount == null) {
+                    userAccount = oldText.substring(index + 1);
+                }
+            }
+            removeUserInternal(userId);
+            String text = toText(username, userAccount);
+            addUser(gramBitmaps, userTexts, userId, text);
+            recordChange(userId, text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addUsers(Collection<User> userList) {
+        lock.writeLock().lock();
+        try {
+            for (User user : userList) {
+                removeUserInternal(user.getId());
+                String text = toText(user.getUsername(), user.getUserAccount());
+                addUser(gramBitmaps, userTexts, user.getId(), text);
+                recordChange(user.getId(), text);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            removeUserInternal(userId);
+            recordChange(userId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* 重建期间记录修改（调用方需持有写锁），同一用户只保留最后一次 */
+    private void recordChange(long userId, String text) {
+        if (changeLog != null) {
+            changeLog.remove(userId);
+            changeLog.put(userId, Optional.ofNullable(text));
+        }
+    }
+
+    @Override
+    public List<Long> searchUserIds(String keyword, long afterId, int limit) {
+        if (StringUtils.isEmpty(keyword) || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String query = keyword.toLowerCase(Locale.ROOT);
+        /* 不超过 3 个字符时 gram 位图就是精确结果，不用再校验 */
+        boolean exact = query.length() <= GRAM_LENGTH;
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap candidates = query.length() < GRAM_LENGTH ? shortGramBitmap(query) : intersect(query);
+            if (candidates == null) {
+                return Collections.emptyList();
+            }
+            /* 候选用户只保证包含关键词的每个三元组，还要校验是否真的包含关键词 */
+            List<Long> userIdList = new ArrayList<>(Math.min(limit, 64));
+            long cardinality = candidates.getLongCardinality();
+            for (long i = afterId < 0 ? 0 : candidates.rankLong(afterId); i < cardinality && userIdList.size() < limit; i++) {
+                long userId = candidates.select(i);
+                if (exact || userTexts.get(userId).contains(query)) {
+                    userIdList.add(userId);
+                }
+            }
+            return userIdList;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取少于 3 个字符的关键词对应的单字、双字位图（调用方需持有读锁）
+     *
+     * @param query 小写的关键词，1 ~ 2 个字符
+     * @return 包含关键词的用户位图，没有用户或关键词包含分隔符时返回 null
+     */
+    private Roaring64NavigableMap shortGramBitmap(String query) {
+        long gram = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == SEPARATOR) {
+                return null;
+            }
+            gram = (gram << 16) | c;
+        }
+        return gramBitmaps.get(gram);
+    }
+
+    /**
+     * 对关键词的三元组位图求交集（调用方需持有读锁）
+     *
+     * @param query 小写的关键词，不少于 3 个字符
+     * @return 交集，某个三元组没有用户时返回 null
+     */
+    private Roaring64NavigableMap intersect(String query) {
+        Set<Long> gramSet = new HashSet<>();
+        forEachTrigram(query, gramSet::add);
+        if (gramSet.isEmpty()) {
+            return null;
+        }
+        List<Roaring64NavigableMap> bitmapList = new ArrayList<>(gramSet.size());
+        for (Long gram : gramSet) {
+            Roaring64NavigableMap bitmap = gramBitmaps.get(gram);
+            if (bitmap == null) {
+                return null;
+            }
+            bitmapList.add(bitmap);
+        }
+        /* 先找出最小的位图，从它开始求交集 */
+        bitmapList.sort(Comparator.comparingLong(Roaring64NavigableMap::getLongCardinality));
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        result.or(bitmapList.get(0));
+        for (int i = 1; i < bitmapList.size() && !result.isEmpty(); i++) {
+            result.and(bitmapList.get(i));
+        }
+        return result;
+    }
+
+    private void addUser(Map<Long, Roaring64NavigableMap> bitmaps, Map<Long, String> textMap, long userId, String text) {
+        textMap.put(userId, text);
+        forEachGram(text, gram -> bitmaps.computeIfAbsent(gram, key -> new Roaring64NavigableMap()).addLong(userId));
+    }
+
+    /* 根据用户原来的文本，只从对应的位图中移除 */
+    private void removeUserInternal(long userId) {
+        String oldText = userTexts.remove(userId);
+        if (oldText == null) {
+            return;
+        }
+        forEachGram(oldText, gram -> {
+            Roaring64NavigableMap bitmap = gramBitmaps.get(gram);
+            if (bitmap != null) {
+                bitmap.removeLong(userId);
+                if (bitmap.isEmpty()) {
+                    gramBitmaps.remove(gram);
+                }
+            }
+        });
+    }
+
+    private static String toText(String username, String userAccount) {
+        return StringUtils.defaultString(username).toLowerCase(Locale.ROOT) + SEPARATOR
+                + StringUtils.defaultString(userAccount).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 遍历文本中长度为 1 ~ 3 的 gram（跳过包含分隔符的），每个 char 占 16 位拼成一个 long，不创建子串
+     * 同一个 gram 可能出现多次，位图重复添加没有影响
+     */
+    private static void forEachGram(String text, LongConsumer consumer) {
+        for (int i = 0; i < text.length(); i++) {
+            long gram = 0;
+            for (int j = i; j < i + GRAM_LENGTH && j < text.length(); j++) {
+                char c = text.charAt(j);
+                if (c == SEPARATOR) {
+                    break;
+                }
+                gram = (gram << 16) | c;
+                consumer.accept(gram);
+            }
+        }
+    }
+
+    /**
+     * 遍历文本中的三元组（跳过包含分隔符的），编码与 forEachGram 相同
+     */
+    private static void forEachTrigram(String text, LongConsumer consumer) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            char c0 = text.charAt(i);
+            char c1 = text.charAt(i + 1);
+            char c2 = text.charAt(i + 2);
+            if (c0 == SEPARATOR || c1 == SEPARATOR || c2 == SEPARATOR) {
+                continue;
+            }
+            consumer.accept(((long) c0 << 32) | ((long) c1 << 16) | c2);
+        }
+    }
+}
@@ -3,29 +3,48 @@ package com.yupi.usercenter.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.usercenter.annotation.ReadReplica;
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.common.CursorPage;
 import com.yupi.usercenter.common.ErrorCode;
-import com.yupi.usercenter.contant.UserConstant;
+import com.yupi.usercenter.contant.CommonConstant;
 import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.manager.LoginStateManager;
+import com.yupi.usercenter.manager.UserBloomFilterManager;
+import com.yupi.usercenter.manager.UserCacheManager;
+import com.yupi.usercenter.manager.UserIndexSyncManager;
+import com.yupi.usercenter.manager.UserSessionManager;
 import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.model.enums.UserValidationError;
+import com.yupi.usercenter.model.vo.UserVO;
+import com.yupi.usercenter.service.TagIndexService;
+import com.yupi.usercenter.service.UserNameIndexService;
 import com.yupi.usercenter.service.UserService;
+import com.yupi.usercenter.service.UserTagService;
+import com.yupi.usercenter.utils.DesensitizeUtils;
+import com.yupi.usercenter.utils.DuplicateKeyUtils;
+import com.yupi.usercenter.utils.PasswordUtils;
+import com.yupi.usercenter.utils.TagUtils;
+import com.yupi.usercenter.utils.UserValidator;
 import com.yupi.usercenter.mapper.UserMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.DigestUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.yupi.usercenter.contant.UserConstant.ADMIN_ROLE;
-import static com.yupi.usercenter.contant.UserConstant.USER_LOGIN_STATE;
 
 /**
  * 用户服务实现类
@@ -40,12 +59,44 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private TagIndexService tagIndexService;
+
+    @Resource
+    private UserNameIndexService userNameIndexService;
+
+    @Resource
+    private UserIndexSyncManager userIndexSyncManager;
+
+    @Resource
+    private UserTagService userTagService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private UserCacheManager userCacheManager;
+
+    @Resource
+    private UserBloomFilterManager userBloomFilterManager;
+
+    @Resource
+    private UserSessionManager userSessionManager;
+
+    @Resource
+    private LoginStateManager loginStateManager;
+
     // https://www.code-nav.cn/
 
     /**
-     * 盐值，混淆密码
+     * 按 id 批量查询时每批的 id 数
+     */
+    private static final int ID_BATCH_SIZE = 1000;
+
+    /**
+     * 导出时每写出多少行刷新一次输出流
      */
-    private static final String SALT = "yupi";
+    private static final int EXPORT_FLUSH_ROWS = 1000;
 
     /**
      * 用户注册
@@ -57,60 +108,45 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      * @return 新用户 id
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public long userRegister(String userAccount, String userPassword, String checkPassword, String planetCode) {
-        // 1. 校验
-        /* isAnyBlank -- 检查多个字符串参数中是否存在任意一个为空白（blank）的情 */
-        if (StringUtils.isAnyBlank(userAccount, userPassword, checkPassword, planetCode)) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "参数为空");
-        }
-        if (userAccount.length() < 4) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户账号过短");
-        }
-        if (userPassword.length() < 8 || checkPassword.length() < 8) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户密码过短");
-        }
-        if (planetCode.length() > 5) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "星球编号过长");
-        }
-        // 账户不能包含特殊字符
-        String validPattern = "[`~!@#$%^&*()+=|{}':;',\\\\[\\\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]";
-        Matcher matcher = Pattern.compile(validPattern).matcher(userAccount);
-        if (matcher.find()) {
-            return -1;
-        }
-        // 密码和校验密码相同
-        if (!userPassword.equals(checkPassword)) {
+        // 1. 校验（非空、长度、账户不能包含特殊字符、密码和校验密码相同）
+        UserValidationError validationError = UserValidator.validateRegister(userAccount, userPassword, checkPassword, planetCode);
+        if (validationError == UserValidationError.ACCOUNT_ILLEGAL_CHAR || validationError == UserValidationError.PASSWORD_NOT_MATCH) {
             return -1;
         }
-        // 账户不能重复
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("userAccount", userAccount);
-        long count = userMapper.selectCount(queryWrapper);
-        if (count > 0) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "账号重复");
-        }
-        // 星球编号不能重复
-        queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("planetCode", planetCode);
-        /* 查询满足指定条件的数据库记录总数 */
-        count = userMapper.selectCount(queryWrapper);
-        if (count > 0) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "编号重复");
+        if (validationError != null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, validationError.getMessage());
         }
         // 2. 加密
-        String encryptPassword = DigestUtils.md5DigestAsHex((SALT + userPassword).getBytes());
+        String encryptPassword = PasswordUtils.encrypt(userPassword);
         // 3. 插入数据
         User user = new User();
         user.setUserAccount(userAccount);
         user.setUserPassword(encryptPassword);
         user.setPlanetCode(planetCode);
-
-        /* 这个是向数据库存数据 */
-        boolean saveResult = this.save(user);
+        /* 注册时没有手机号、邮箱，脱敏列写入空值的脱敏结果 */
+        user.setMaskedPhone(DesensitizeUtils.maskPhone(user.getPhone()));
+        user.setMaskedEmail(DesensitizeUtils.maskEmail(user.getEmail()));
+
+        /* 这个是向数据库存数据；账户、星球编号不能重复，由唯一索引保证，不再先查一次 */
+        boolean saveResult;
+        try {
+            saveResult = this.save(user);
+        } catch (DuplicateKeyException e) {
+            throw toDuplicateException(e);
+        }
         if (!saveResult) {
             return -1;
         }
-        /*  */
+        /* 事务提交后写入布隆过滤器 */
+        userBloomFilterManager.addUser(userAccount, planetCode);
+        /* 同步标签（新用户一般没有标签） */
+        if (StringUtils.isNotBlank(user.getTags())) {
+            userTagService.replaceUserTags(user.getId(), user.getTags());
+        }
+        /* 事务提交后加入标签索引、用户名索引 */
+        userIndexSyncManager.userChanged(user.getId());
         return user.getId();
     }
 
@@ -121,29 +157,18 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      * @param userAccount  用户账户
      * @param userPassword 用户密码
      * @param request
+     * @param response
      * @return 脱敏后的用户信息
      */
     @Override
-    public User userLogin(String userAccount, String userPassword, HttpServletRequest request) {
-        // 1. 校验
-        if (StringUtils.isAnyBlank(userAccount, userPassword)) {
-            return null;
-        }
-        if (userAccount.length() < 4) {
-            return null;
-        }
-        if (userPassword.length() < 8) {
-            return null;
-        }
-        // 账户不能包含特殊字符
-        String validPattern = "[`~!@#$%^&*()+=|{}':;',\\\\[\\\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]";
-        Matcher matcher = Pattern.compile(validPattern).matcher(userAccount);
-        if (matcher.find()) {
+    public UserVO userLogin(String userAccount, String userPassword, HttpServletRequest request, HttpServletResponse response) {
+        // 1. 校验（非空、长度、账户不能包含特殊字符）
+        if (UserValidator.validateLogin(userAccount, userPassword) != null) {
             return null;
         }
         // 2. 加密
         /* 数据库存储的是加密后的密码，所以要加密后进行对比 */
-        String encryptPassword = DigestUtils.md5DigestAsHex((SALT + userPassword).getBytes());
+        String encryptPassword = PasswordUtils.encrypt(userPassword);
         // 查询用户是否存在
 
         /* Mybatis-Plus查询条件构造器 */
@@ -164,74 +189,54 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         // 3. 用户脱敏
 
         /* (getSafetyUser)用户信息脱敏 -- 保护用户数据安全性 */
-        User safetyUser = getSafetyUser(user);
-        // 4. 记录用户的登录态
+        UserVO safetyUser = getSafetyUser(user);
+        // 4. 记录用户的登录态（session 或令牌，由 usercenter.auth.mode 决定）
 //        request.getSession().setAttribute(USER_LOGIN_STATE, safetyUser);
-        HttpSession session = request.getSession();
-        session.setAttribute(USER_LOGIN_STATE, safetyUser);
-        session.getId();
-        System.out.println("sessionId:" + session.getId());
+        loginStateManager.login(user, request, response);
         return safetyUser;
     }
 
     /**
-     * 用户脱敏
+     * 用户脱敏（已查出完整用户时使用，如登录；其余查询直接用投影查询得到 UserVO）
      *
      * @param originUser
      * @return
      */
     @Override
-    public User getSafetyUser(User originUser) {
+    public UserVO getSafetyUser(User originUser) {
         if (originUser == null) {
             return null;
         }
-        User safetyUser = new User();
+        UserVO safetyUser = new UserVO();
         safetyUser.setId(originUser.getId());
         safetyUser.setUsername(originUser.getUsername());
         safetyUser.setUserAccount(originUser.getUserAccount());
         safetyUser.setAvatarUrl(originUser.getAvatarUrl());
         safetyUser.setGender(originUser.getGender());
-        // 对手机号脱敏：13800138000 → 138****8000
-        safetyUser.setPhone(
-                desensitizePhone(originUser.getPhone()));
-
-        // 对邮箱脱敏：test@example.com → te**@example.com
-        safetyUser.setEmail(desensitizeEmail(originUser.getEmail()));
-
-        // 注意：以下字段根据业务需求决定是否返回
+        /* 优先使用写入时已脱敏的值，还没有回填的旧数据才现算 */
+        safetyUser.setPhone(originUser.getMaskedPhone() != null
+                ? originUser.getMaskedPhone() : DesensitizeUtils.maskPhone(originUser.getPhone()));
+        safetyUser.setEmail(originUser.getMaskedEmail() != null
+                ? originUser.getMaskedEmail() : DesensitizeUtils.maskEmail(originUser.getEmail()));
         safetyUser.setPlanetCode(originUser.getPlanetCode());
-
         // 通常不返回角色和状态给前端
-        // safetyUser.setUserRole(originUser.getUserRole());
-        // safetyUser.setUserStatus(originUser.getUserStatus());
-
         safetyUser.setCreateTime(originUser.getCreateTime());
         safetyUser.setTags(originUser.getTags());
         return safetyUser;
     }
 
 
-    // 手机号脱敏方法
-    private String desensitizePhone(String phone) {
-        if (StringUtils.isBlank(phone) || phone.length() < 7) {
-            return "****";
-        }
-        return phone.substring(0, 3) + "****" + phone.substring(7);
-    }
-
-    // 邮箱脱敏方法
-    private String desensitizeEmail(String email) {
-        if (StringUtils.isBlank(email) || !email.contains("@")) {
-            return "****";
-        }
-        int atIndex = email.indexOf('@');
-        if (atIndex <= 2) {
-            return "****" + email.substring(atIndex);
-        }
-        return email.substring(0, 2) + "****" + email.substring(atIndex);
+    /**
+     * 根据 id 获取脱敏后的用户（读穿透缓存，未命中时只查询公开列和已脱敏的手机号、邮箱）
+     *
+     * @param userId 用户 id
+     * @return
+     */
+    @Override
+    public UserVO getSafetyUserById(long userId) {
+        return userCacheManager.get(userId, userMapper::selectSafetyUserById);
     }
 
-
     /**
      * 用户注销
      *
@@ -239,11 +244,28 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      */
     @Override
     public int userLogout(HttpServletRequest request) {
-        // 移除登录态（移除对应的Session）
-        request.getSession().removeAttribute(USER_LOGIN_STATE);
+        // 移除登录态（session 模式移除 session 中的登录态，令牌模式使刷新令牌失效）
+        loginStateManager.logout(request);
         return 1;
     }
 
+    /**
+     * 刷新令牌：刷新令牌有效且未使用过时，按数据库中的最新角色、状态签发新令牌
+     *
+     * @param request
+     * @param response
+     */
+    @Override
+    public void refreshToken(HttpServletRequest request, HttpServletResponse response) {
+        long userId = loginStateManager.consumeRefreshToken(request);
+        User user = userMapper.selectById(userId);
+        /* 用户已被删除 */
+        if (user == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        loginStateManager.issueTokens(user, response);
+    }
+
     /**
      * 根据标签搜索用户。
      *
@@ -251,33 +273,115 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      * @return
      */
     @Override
-    public List<User> searchUsersByTags(List<String> tagNameList) {
+    @ReadReplica
+    public List<UserVO> searchUsersByTags(List<String> tagNameList) {
         /* 判断tagNameList是否为空 */
         if (CollectionUtils.isEmpty(tagNameList)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
-        /* 创建Mybaits-plus条件构造器 */
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        //拼接tag
-        // like '%Java%' and like '%Python%'
-        /* 遍历每一个标签 */
-        for (String tagList : tagNameList) {
-            /* 给构造器添加模糊查找 */
-            queryWrapper = queryWrapper.like("tags", tagList);
-        }
-        /* 按照构造器查找用户 */
-        List<User> userList = userMapper.selectList(queryWrapper);
+        /* 标签索引已就绪：位图求交集得到用户 id，再按 id 查询 */
+        if (tagIndexService.isReady()) {
+            List<Long> userIdList = tagIndexService.searchUserIds(tagNameList);
+            return listSafetyUsersByIds(userIdList);
+        }
+        /* 索引未就绪时回退到 user_tag 表：tag in (...) group by userId having count(*) = n */
+        Set<String> tagSet = new HashSet<>(tagNameList);
+        List<Long> userIdList = userMapper.selectUserIdsByAllTags(tagSet, tagSet.size(), null, null);
+        return listSafetyUsersByIds(userIdList);
+    }
+
+    /**
+     * 根据标签搜索用户（游标分页）
+     *
+     * @param tagNameList 用户要搜索的标签
+     * @param afterId     游标
+     * @param pageSize    每页条数
+     * @return
+     */
+    @Override
+    @ReadReplica
+    public CursorPage<UserVO> searchUsersByTags(List<String> tagNameList, Long afterId, Integer pageSize) {
+        if (CollectionUtils.isEmpty(tagNameList)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        int size = getPageSize(pageSize);
+        /* 多取一条，用来判断是否还有下一页 */
+        List<Long> userIdList;
+        if (tagIndexService.isReady()) {
+            userIdList = tagIndexService.searchUserIds(tagNameList, afterId == null ? 0 : afterId, size + 1);
+        } else {
+            Set<String> tagSet = new HashSet<>(tagNameList);
+            userIdList = userMapper.selectUserIdsByAllTags(tagSet, tagSet.size(), afterId, size + 1);
+        }
+        return CursorPage.ofIds(userIdList, size, this::listSafetyUsersByIds);
+    }
 
+    /**
+     * 根据用户名或账号搜索用户（游标分页）
+     * 索引已就绪时由 n-gram 索引得到按 id 升序的一页用户 id，再按 id 查询；
+     * 否则 where id > afterId order by id limit pageSize + 1，翻到多深都只扫描一页数据（但 like '%xx%' 需要全表扫描）
+     *
+     * @param username 用户名或账号（子串匹配），为空时查询全部
+     * @param afterId  游标
+     * @param pageSize 每页条数
+     * @return
+     */
+    @Override
+    @ReadReplica
+    public CursorPage<UserVO> searchUsers(String username, Long afterId, Integer pageSize) {
+        int size = getPageSize(pageSize);
+        String keyword = StringUtils.trimToNull(username);
+        /* 多取一条，用来判断是否还有下一页 */
+        if (keyword != null && userNameIndexService.isReady()) {
+            List<Long> userIdList = userNameIndexService.searchUserIds(keyword, afterId == null ? 0 : afterId, size + 1);
+            return CursorPage.ofIds(userIdList, size, this::listSafetyUsersByIds);
+        }
+        /* 只查询公开列和已脱敏的手机号、邮箱，直接映射为 UserVO */
+        List<UserVO> safetyUserList = userMapper.selectSafetyUsers(keyword, afterId, size + 1);
+        return CursorPage.of(safetyUserList, size, UserVO::getId);
+    }
 
-        /* 对用户信息脱敏然后发送给前端
-        *   List<SafetyUser> resultList = new ArrayList<>();  // 创建新列表存放结果
-            for (User user : userList) {                     // 遍历原始列表
-                SafetyUser safetyUser = getSafetyUser(user);  // 对每个元素应用转换方法
-                resultList.add(safetyUser);                  // 将结果添加到新列表
+    /**
+     * 以 NDJSON 格式导出用户
+     * 通过 MyBatis Cursor 逐行读取公开列（只读事务保证遍历期间连接不被释放），每行立即写出
+     *
+     * @param username     用户名或账号（子串匹配，与 searchUsers 相同）
+     * @param outputStream 输出流
+     * @return 导出的用户数
+     * @throws IOException
+     */
+    @Override
+    @ReadReplica
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public long exportUsers(String username, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Cursor<UserVO> cursor = userMapper.streamSafetyUsers(StringUtils.trimToNull(username))) {
+            for (UserVO safetyUser : cursor) {
+                outputStream.write(objectMapper.writeValueAsBytes(safetyUser));
+                outputStream.write('\n');
+                if (++count % EXPORT_FLUSH_ROWS == 0) {
+                    outputStream.flush();
+                }
             }
-            return resultList;                               // 返回处理后的列表 */
+        }
+        outputStream.flush();
+        return count;
+    }
 
-        return userList.stream().map(this::getSafetyUser).collect(Collectors.toList());
+    /**
+     * 校验并返回每页条数
+     *
+     * @param pageSize 前端传入的每页条数
+     * @return
+     */
+    private int getPageSize(Integer pageSize) {
+        if (pageSize == null) {
+            return CommonConstant.DEFAULT_PAGE_SIZE;
+        }
+        if (pageSize <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "每页条数必须大于 0");
+        }
+        return Math.min(pageSize, CommonConstant.MAX_PAGE_SIZE);
     }
 
 
@@ -322,44 +426,42 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      * @return
      */
     @Override
-    public List<User> searchUsersByTags2(List<String> tagNameList) {
+    @ReadReplica
+    public List<UserVO> searchUsersByTags2(List<String> tagNameList) {
         if (CollectionUtils.isEmpty(tagNameList)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
-        //1.先查询所有用户
+        /* 标签索引已就绪：逐个比较内存中每个用户的标签编号数组（升序 int[]），不再逐行解析 JSON */
+        if (tagIndexService.isReady()) {
+            List<Long> userIdList = tagIndexService.scanUserIds(tagNameList);
+            return listSafetyUsersByIds(userIdList);
+        }
+        //1.先查询所有用户（只取 id 和 tags）
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tags");
         List<User> userList = userMapper.selectList(queryWrapper);
-        Gson gson = new Gson();
-        //2.判断内存中是否包含要求的标签 parallelStream()
-        return userList.stream().filter(user -> {
-            String tagstr = user.getTags();
-//            if (StringUtils.isBlank(tagstr)){
-//                return false;
-//            }
-            Set<String> tempTagNameSet = gson.fromJson(tagstr, new TypeToken<Set<String>>() {
-            }.getType());
-            //java8  Optional 来判断空
-            tempTagNameSet = Optional.ofNullable(tempTagNameSet).orElse(new HashSet<>());
-
-            for (String tagName : tagNameList) {
-                if (!tempTagNameSet.contains(tagName)) {
-                    return false;
-                }
-            }
-            return true;
-        }).map(this::getSafetyUser).collect(Collectors.toList());
+        //2.判断内存中是否包含要求的标签
+        List<Long> userIdList = userList.stream()
+                .filter(user -> TagUtils.parseTags(user.getTags()).containsAll(tagNameList))
+                .map(User::getId)
+                .collect(Collectors.toList());
+        return listSafetyUsersByIds(userIdList);
     }
 
     /**
      * 用户信息修改
-     * @param user 当前要更新的用户信息
+     * 只执行一条 update ... where id = ? and version = ? and isDelete = 0，同时完成存在性检查和版本检查，
+     * 影响行数为 0 时才再查一次，区分用户不存在和已被他人修改
+     *
+     * @param user 当前要更新的用户信息（必须带上读取时的 version）
      * @param loginUser 当前登录的用户信息
      * @return
      */
     @Override
-    public int updateUser(User user, User loginUser) {
+    @Transactional(rollbackFor = Exception.class)
+    public int updateUser(User user, UserPrincipal loginUser) {
 
-        /* 判断当前待更新的用户ID是否存在 */
+        /* 判断当前待更新的用户ID是否合法 */
         long userId = user.getId();
         if (userId <= 0) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
@@ -367,55 +469,118 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         // 如果是管理员，允许更新任意信息
         // 如果不是管理员，只允许更新自己的信息
         /* 判断是不是管理员            判断要修改的是不是当前用户 */
-        if (!isAdmin(loginUser) && userId != loginUser.getId()) {
+        boolean admin = isAdmin(loginUser);
+        if (!admin && userId != loginUser.getId()) {
             throw new BusinessException(ErrorCode.NO_AUTH);
         }
-        /* 根据id查询当前要更新的用户是否存在 */
-        User userOld = userMapper.selectById(userId);
-        if (userOld == null) {
-            throw new BusinessException(ErrorCode.NULL_ERROR);
+        /* 角色、状态只有管理员可以修改，普通用户传入的值忽略（为 null 时不更新该列） */
+        if (!admin) {
+            user.setUserRole(null);
+            user.setUserStatus(null);
+        }
+        /* 没有版本号时乐观锁不生效，会覆盖别人的修改 */
+        if (user.getVersion() == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "缺少版本号");
+        }
+        /* 脱敏列只由手机号、邮箱计算得到，忽略前端传入的值；为 null 表示本次没有修改 */
+        user.setMaskedPhone(user.getPhone() == null ? null : DesensitizeUtils.maskPhone(user.getPhone()));
+        user.setMaskedEmail(user.getEmail() == null ? null : DesensitizeUtils.maskEmail(user.getEmail()));
+        /* 根据ID和版本号修改用户（乐观锁插件追加 version 条件并把 version 加 1），然后返回受影响的行数 */
+        int result;
+        try {
+            result = userMapper.updateById(user);
+        } catch (DuplicateKeyException e) {
+            throw toDuplicateException(e);
         }
-        /* 存在，并且权限满足    根据ID修改用户  然后返回受影响的行数 */
-        return userMapper.updateById(user);
+        if (result == 0) {
+            /* 逻辑删除的用户同样视为不存在 */
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("id", userId);
+            if (userMapper.selectCount(queryWrapper) == 0) {
+                throw new BusinessException(ErrorCode.NULL_ERROR, "用户不存在");
+            }
+            throw new BusinessException(ErrorCode.CONFLICT, "用户信息已被修改，请刷新后重试");
+        }
+        userCacheManager.invalidate(userId);
+        if (user.getUserAccount() != null || user.getPlanetCode() != null) {
+            userBloomFilterManager.addUser(user.getUserAccount(), user.getPlanetCode());
+        }
+        /* 角色、状态变化后刷新该用户所有 session 中的登录态（事务提交后） */
+        if (user.getUserRole() != null || user.getUserStatus() != null) {
+            userSessionManager.refreshPrincipal(userMapper.selectById(userId));
+        }
+        /* tags 为 null 表示本次没有修改标签 */
+        if (user.getTags() != null) {
+            userTagService.replaceUserTags(userId, user.getTags());
+        }
+        /* 标签、用户名、账号都为 null 表示索引用到的字段本次没有修改 */
+        if (user.getTags() != null || user.getUsername() != null || user.getUserAccount() != null) {
+            userIndexSyncManager.userChanged(userId);
+        }
+        return result;
     }
 
     /**
-     * 获取当前用户信息
-     * @param request
+     * 把唯一索引冲突转换成业务异常（根据冲突的索引名区分账号还是星球编号）
+     *
+     * @param e 唯一索引冲突
      * @return
      */
-    @Override
-    public User getLoginInUser(HttpServletRequest request) {
-        /* 如果传入的 HttpServletRequest 对象 request 为 null，说明无法获取会话信息，直接返回 null。 */
-        if (request == null) {
-            return null;
+    private BusinessException toDuplicateException(DuplicateKeyException e) {
+        String message = DuplicateKeyUtils.getDuplicateMessage(e);
+        if (message != null) {
+            return new BusinessException(ErrorCode.PARAMS_ERROR, message);
         }
-        /* 获取到当前登录的用户信息 */
-        Object userObj = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
-        if (userObj == null) {
-            throw new BusinessException(ErrorCode.NO_AUTH);
+        /* 不是这两个索引，不能确定原因 */
+        log.error("unexpected duplicate key", e);
+        return new BusinessException(ErrorCode.SYSTEM_ERROR, "数据重复");
+    }
+
+    /**
+     * 删除用户（逻辑删除），同时删除标签关联并从标签索引、用户名索引中移除
+     *
+     * @param id 用户 id
+     * @return
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        if (result) {
+            long userId = Long.parseLong(String.valueOf(id));
+            userTagService.removeUserTags(userId);
+            userIndexSyncManager.userChanged(userId);
+            userCacheManager.invalidate(userId);
         }
-        return (User) userObj;
+        return result;
     }
 
     /**
-     * 是否为管理员(通过HttpServletRequest)
-     * @param request
+     * 按 id 分批查询脱敏用户（只查询公开列，按 id 升序）
+     *
+     * @param userIdList 用户 id 列表
      * @return
      */
-    public boolean isAdmin(HttpServletRequest request) {
-        // 优先从session中取
-        Object userObj = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
-        User user = (User) userObj;
-        return user != null && user.getUserRole() == ADMIN_ROLE;
+    private List<UserVO> listSafetyUsersByIds(List<Long> userIdList) {
+        if (CollectionUtils.isEmpty(userIdList)) {
+            return new ArrayList<>();
+        }
+        List<UserVO> safetyUserList = new ArrayList<>(userIdList.size());
+        for (int i = 0; i < userIdList.size(); i += ID_BATCH_SIZE) {
+            List<Long> batchIdList = userIdList.subList(i, Math.min(i + ID_BATCH_SIZE, userIdList.size()));
+            safetyUserList.addAll(userMapper.selectSafetyUsersByIds(batchIdList));
+        }
+        safetyUserList.sort(Comparator.comparing(UserVO::getId));
+        return safetyUserList;
     }
 
     /**
-     * 是否为管理员(通过User)
+     * 是否为管理员(通过登录态)
      * @param loginUser
      * @return
      */
-    public boolean isAdmin(User loginUser) {
+    @Override
+    public boolean isAdmin(UserPrincipal loginUser) {
         return loginUser != null && loginUser.getUserRole() == ADMIN_ROLE;
     }
 
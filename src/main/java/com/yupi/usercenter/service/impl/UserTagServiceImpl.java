@@ -0,0 +1,49 @@
+package com.yupi.usercenter.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.yupi.usercenter.mapper.UserTagMapper;
+import com.yupi.usercenter.model.domain.UserTag;
+import com.yupi.usercenter.service.UserTagService;
+import com.yupi.usercenter.utils.TagUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 用户标签关联服务实现
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+@Service
+public class UserTagServiceImpl extends ServiceImpl<UserTagMapper, UserTag>
+        implements UserTagService {
+
+    @Override
+    public void replaceUserTags(long userId, String tagsJson) {
+        removeUserTags(userId);
+        Set<String> tagSet = TagUtils.parseTags(tagsJson);
+        List<UserTag> userTagList = new ArrayList<>(tagSet.size());
+        for (String tag : tagSet) {
+            if (tag == null) {
+                continue;
+            }
+            UserTag userTag = new UserTag();
+            userTag.setUserId(userId);
+            userTag.setTag(tag);
+            userTagList.add(userTag);
+        }
+        if (!userTagList.isEmpty()) {
+            this.saveBatch(userTagList);
+        }
+    }
+
+    @Override
+    public void removeUserTags(long userId) {
+        QueryWrapper<UserTag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("userId", userId);
+        this.remove(queryWrapper);
+    }
+}
@@ -0,0 +1,54 @@
+package com.yupi.usercenter.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 解析（RFC 4180：逗号分隔，字段可以用双引号包裹，引号内的 "" 表示一个引号）
+ * 按行解析，不支持引号内换行
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class CsvUtils {
+
+    private CsvUtils() {
+    }
+
+    /**
+     * 解析一行
+     *
+     * @param line 一行文本
+     * @return 字段列表
+     * @throws IllegalArgumentException 引号没有闭合
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0, length = line.length(); i < length; i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < length && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("引号没有闭合");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,52 @@
+package com.yupi.usercenter.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 手机号、邮箱脱敏（注册、修改、批量导入时计算一次并保存到 maskedPhone、maskedEmail 列，读取时直接返回）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class DesensitizeUtils {
+
+    /**
+     * 为空或格式不对时的脱敏结果
+     */
+    public static final String MASK = "****";
+
+    private DesensitizeUtils() {
+    }
+
+    /**
+     * 手机号脱敏：13800138000 → 138****8000
+     *
+     * @param phone 手机号
+     * @return
+     */
+    public static String maskPhone(String phone) {
+        if (StringUtils.isBlank(phone) || phone.length() < 7) {
+            return MASK;
+        }
+        return phone.substring(0, 3) + MASK + phone.substring(7);
+    }
+
+    /**
+     * 邮箱脱敏：test@example.com → te****@example.com
+     *
+     * @param email 邮箱
+     * @return
+     */
+    public static String maskEmail(String email) {
+        if (StringUtils.isBlank(email)) {
+            return MASK;
+        }
+        int atIndex = email.indexOf('@');
+        if (atIndex < 0) {
+            return MASK;
+        }
+        if (atIndex <= 2) {
+            return MASK + email.substring(atIndex);
+        }
+        return email.substring(0, 2) + MASK + email.substring(atIndex);
+    }
+}
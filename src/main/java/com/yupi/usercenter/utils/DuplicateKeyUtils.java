@@ -0,0 +1,43 @@
+package com.yupi.usercenter.utils;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * 用户表唯一索引冲突识别
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class DuplicateKeyUtils {
+
+    /**
+     * 账号唯一索引名（小写，用于从冲突信息中识别）
+     */
+    private static final String UNIQUE_INDEX_USER_ACCOUNT = "uniidx_useraccount";
+
+    /**
+     * 星球编号唯一索引名（小写，用于从冲突信息中识别）
+     */
+    private static final String UNIQUE_INDEX_PLANET_CODE = "uniidx_planetcode";
+
+    private DuplicateKeyUtils() {
+    }
+
+    /**
+     * 根据冲突的索引名得到提示信息
+     *
+     * @param e 唯一索引冲突（DuplicateKeyException；R2DBC 只转换成 DataIntegrityViolationException）
+     * @return “账号重复” / “编号重复”，不是这两个索引时返回 null
+     */
+    public static String getDuplicateMessage(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(UNIQUE_INDEX_PLANET_CODE)) {
+            return "编号重复";
+        }
+        if (message.contains(UNIQUE_INDEX_USER_ACCOUNT)) {
+            return "账号重复";
+        }
+        return null;
+    }
+}
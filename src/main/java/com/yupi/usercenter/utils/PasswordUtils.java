@@ -0,0 +1,29 @@
+package com.yupi.usercenter.utils;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * 密码加密（注册、登录、批量导入共用）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class PasswordUtils {
+
+    /**
+     * 盐值，混淆密码
+     */
+    private static final String SALT = "yupi";
+
+    private PasswordUtils() {
+    }
+
+    /**
+     * 加盐 MD5
+     *
+     * @param userPassword 原始密码
+     * @return
+     */
+    public static String encrypt(String userPassword) {
+        return DigestUtils.md5DigestAsHex((SALT + userPassword).getBytes());
+    }
+}
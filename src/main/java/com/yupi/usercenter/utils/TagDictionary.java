@@ -0,0 +1,163 @@
+package com.yupi.usercenter.utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 标签字典：给每个不同的标签分配一个从 0 开始的 int 编号
+ * 用户的标签以升序、去重的 int[] 保存，JSON 字符串只作为序列化形式
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class TagDictionary {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Integer> tagIdMap = new ConcurrentHashMap<>();
+
+    /* 编号 -> 标签，只在 synchronized 块中追加 */
+    private final List<String> tagList = new ArrayList<>();
+
+    /**
+     * 获取标签编号，不存在时分配新编号
+     *
+     * @param tag 标签
+     * @return 编号
+     */
+    public int getOrAssign(String tag) {
+        Integer tagId = tagIdMap.get(tag);
+        if (tagId != null) {
+            return tagId;
+        }
+        synchronized (this) {
+            tagId = tagIdMap.get(tag);
+            if (tagId == null) {
+                tagId = tagList.size();
+                tagList.add(tag);
+                tagIdMap.put(tag, tagId);
+            }
+            return tagId;
+        }
+    }
+
+    /**
+     * 获取标签编号
+     *
+     * @param tag 标签
+     * @return 编号，不存在时返回 -1
+     */
+    public int getId(String tag) {
+        Integer tagId = tagIdMap.get(tag);
+        return tagId == null ? -1 : tagId;
+    }
+
+    /**
+     * 根据编号获取标签
+     *
+     * @param tagId 编号
+     * @return 标签
+     */
+    public synchronized String getTag(int tagId) {
+        return tagList.get(tagId);
+    }
+
+    /**
+     * 标签个数
+     *
+     * @return
+     */
+    public int size() {
+        return tagIdMap.size();
+    }
+
+    /**
+     * 编码用户的标签，未出现过的标签会分配新编号
+     *
+     * @param tags 标签
+     * @return 升序、去重的编号数组
+     */
+    public int[] encode(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return EMPTY;
+        }
+        int[] tagIds = new int[tags.size()];
+        int size = 0;
+        for (String tag : tags) {
+            if (tag != null) {
+                tagIds[size++] = getOrAssign(tag);
+            }
+        }
+        return sortDistinct(tagIds, size);
+    }
+
+    /**
+     * 编码查询条件中的标签，不会分配新编号
+     *
+     * @param tags 标签
+     * @return 升序、去重的编号数组；有任一标签从未出现过时返回 null（不可能有用户匹配）
+     */
+    public int[] encodeExisting(Collection<String> tags) {
+        int[] tagIds = new int[tags.size()];
+        int size = 0;
+        for (String tag : tags) {
+            int tagId = tag == null ? -1 : getId(tag);
+            if (tagId < 0) {
+                return null;
+            }
+            tagIds[size++] = tagId;
+        }
+        return sortDistinct(tagIds, size);
+    }
+
+    /**
+     * 把编号数组还原为标签 JSON
+     *
+     * @param tagIds 编号数组
+     * @return 标签 JSON（如 ["java","python"]）
+     */
+    public String toJson(int[] tagIds) {
+        List<String> tags = new ArrayList<>(tagIds.length);
+        for (int tagId : tagIds) {
+            tags.add(getTag(tagId));
+        }
+        return TagUtils.toJson(tags);
+    }
+
+    /**
+     * 判断用户标签是否包含所有查询标签（两个数组都是升序的，归并比较，无额外分配）
+     *
+     * @param userTagIds  用户标签编号
+     * @param queryTagIds 查询标签编号
+     * @return
+     */
+    public static boolean containsAll(int[] userTagIds, int[] queryTagIds) {
+        if (queryTagIds.length > userTagIds.length) {
+            return false;
+        }
+        int i = 0;
+        for (int queryTagId : queryTagIds) {
+            while (i < userTagIds.length && userTagIds[i] < queryTagId) {
+                i++;
+            }
+            if (i == userTagIds.length || userTagIds[i] != queryTagId) {
+                return false;
+            }
+            i++;
+        }
+        return true;
+    }
+
+    private static int[] sortDistinct(int[] tagIds, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(tagIds, 0, size);
+        int distinct = 1;
+        for (int i = 1; i < size; i++) {
+            if (tagIds[i] != tagIds[distinct - 1]) {
+                tagIds[distinct++] = tagIds[i];
+            }
+        }
+        return distinct == tagIds.length ? tagIds : Arrays.copyOf(tagIds, distinct);
+    }
+}
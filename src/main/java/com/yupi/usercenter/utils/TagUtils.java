@@ -0,0 +1,56 @@
+package com.yupi.usercenter.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 标签工具类
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class TagUtils {
+
+    private static final Gson GSON = new Gson();
+
+    /* Gson 是线程安全的，TypeToken 只需要创建一次 */
+    private static final Type TAG_SET_TYPE = new TypeToken<Set<String>>() {
+    }.getType();
+
+    private TagUtils() {
+    }
+
+    /**
+     * 解析用户的标签 JSON（如 ["java","python"]）
+     *
+     * @param tagsJson 标签 JSON 字符串
+     * @return 标签集合，为空或格式错误时返回空集合
+     */
+    public static Set<String> parseTags(String tagsJson) {
+        if (StringUtils.isBlank(tagsJson)) {
+            return Collections.emptySet();
+        }
+        try {
+            Set<String> tagSet = GSON.fromJson(tagsJson, TAG_SET_TYPE);
+            return tagSet == null ? Collections.<String>emptySet() : tagSet;
+        } catch (JsonSyntaxException e) {
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 把标签序列化为 JSON
+     *
+     * @param tags 标签
+     * @return 标签 JSON
+     */
+    public static String toJson(Collection<String> tags) {
+        return GSON.toJson(tags);
+    }
+}
@@ -0,0 +1,132 @@
+package com.yupi.usercenter.utils;
+
+import com.yupi.usercenter.model.enums.UserValidationError;
+
+/**
+ * 注册 / 登录参数校验
+ * 特殊字符用 BMP（0 ~ 0xFFFF）位图查表，一次遍历、不编译正则、不分配对象
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserValidator {
+
+    /**
+     * 账号最短长度
+     */
+    public static final int MIN_ACCOUNT_LENGTH = 4;
+
+    /**
+     * 密码最短长度
+     */
+    public static final int MIN_PASSWORD_LENGTH = 8;
+
+    /**
+     * 星球编号最长长度
+     */
+    public static final int MAX_PLANET_CODE_LENGTH = 5;
+
+    /**
+     * 账号中不允许出现的字符（原正则 [`~!@#$%^&*()+=|{}':;',\\[\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？] 实际拦截的字符）
+     * 原正则中 [ ] 被当成嵌套字符类，没有生效，所以这里也不拦截 [ ]
+     */
+    private static final String ILLEGAL_CHARS = "`~!@#$%^&*()+=|{}':;,\\.<>/?！￥…（）—【】‘；：”“’。，、？";
+
+    /* 65536 位，每个 BMP 字符一位 */
+    private static final long[] ILLEGAL_CHAR_BITMAP = toBitmap(ILLEGAL_CHARS);
+
+    private UserValidator() {
+    }
+
+    /**
+     * 是否包含特殊字符（注册、登录使用同一个字符集）
+     *
+     * @param str 待校验字符串
+     * @return
+     */
+    public static boolean containsIllegalChar(CharSequence str) {
+        for (int i = 0, length = str.length(); i < length; i++) {
+            char c = str.charAt(i);
+            /* 1L << c 只取 c 的低 6 位 */
+            if ((ILLEGAL_CHAR_BITMAP[c >>> 6] & (1L << c)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] toBitmap(String chars) {
+        long[] bitmap = new long[1 << 10];
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            bitmap[c >>> 6] |= 1L << c;
+        }
+        return bitmap;
+    }
+
+    /**
+     * 校验注册参数（校验顺序与原注册逻辑一致）
+     *
+     * @param userAccount   用户账户
+     * @param userPassword  用户密码
+     * @param checkPassword 校验密码
+     * @param planetCode    星球编号
+     * @return 第一个校验错误，校验通过时返回 null
+     */
+    public static UserValidationError validateRegister(String userAccount, String userPassword, String checkPassword, String planetCode) {
+        if (isBlank(userAccount) || isBlank(userPassword) || isBlank(checkPassword) || isBlank(planetCode)) {
+            return UserValidationError.PARAMS_BLANK;
+        }
+        if (userAccount.length() < MIN_ACCOUNT_LENGTH) {
+            return UserValidationError.ACCOUNT_TOO_SHORT;
+        }
+        if (userPassword.length() < MIN_PASSWORD_LENGTH || checkPassword.length() < MIN_PASSWORD_LENGTH) {
+            return UserValidationError.PASSWORD_TOO_SHORT;
+        }
+        if (planetCode.length() > MAX_PLANET_CODE_LENGTH) {
+            return UserValidationError.PLANET_CODE_TOO_LONG;
+        }
+        if (containsIllegalChar(userAccount)) {
+            return UserValidationError.ACCOUNT_ILLEGAL_CHAR;
+        }
+        if (!userPassword.equals(checkPassword)) {
+            return UserValidationError.PASSWORD_NOT_MATCH;
+        }
+        return null;
+    }
+
+    /**
+     * 校验登录参数
+     *
+     * @param userAccount  用户账户
+     * @param userPassword 用户密码
+     * @return 第一个校验错误，校验通过时返回 null
+     */
+    public static UserValidationError validateLogin(String userAccount, String userPassword) {
+        if (isBlank(userAccount) || isBlank(userPassword)) {
+            return UserValidationError.PARAMS_BLANK;
+        }
+        if (userAccount.length() < MIN_ACCOUNT_LENGTH) {
+            return UserValidationError.ACCOUNT_TOO_SHORT;
+        }
+        if (userPassword.length() < MIN_PASSWORD_LENGTH) {
+            return UserValidationError.PASSWORD_TOO_SHORT;
+        }
+        if (containsIllegalChar(userAccount)) {
+            return UserValidationError.ACCOUNT_ILLEGAL_CHAR;
+        }
+        return null;
+    }
+
+    /* 与 StringUtils.isBlank 一致，逐个判断以避免 isAnyBlank 的可变参数数组分配 */
+    private static boolean isBlank(String str) {
+        if (str == null) {
+            return true;
+        }
+        for (int i = 0, length = str.length(); i < length; i++) {
+            if (!Character.isWhitespace(str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
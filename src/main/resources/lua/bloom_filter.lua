@@ -0,0 +1,174 @@
+-- 可扩容布隆过滤器（Redis 位图）
+-- 用到的键全部通过 KEYS 传入（键名带 {name} 哈希标签，同一个过滤器的键在 Redis Cluster 的同一个槽）：
+--   KEYS[1]  当前代所在的槽位（a / b）
+--   KEYS[2]  重建中的槽位（a / b）
+--   KEYS[3]  槽位 a 的参数 layers / capacity:i / m:i / k:i / count:i
+--   KEYS[4 .. 3 + L]  槽位 a 第 0 .. L - 1 层位图
+--   KEYS[4 + L]  槽位 b 的参数
+--   KEYS[5 + L .. 4 + 2L]  槽位 b 第 0 .. L - 1 层位图
+-- L 为最大层数；当前代和重建中的代分别占用一个槽位，重建完成后互换
+-- 每层容量按 growth 倍增长、误判率按 tightening 收紧；位下标 (h1 + j * h2) % m，h1 / h2 为 32 位哈希
+-- 已经有 L 层时不再扩容，继续写入最后一层（误判率随之升高，定时重建时按数据量重新分层）
+--
+-- ARGV[1] 操作：add / containsAll / begin / swap
+-- add:      ARGV[2] 首层容量 ARGV[3] 首层误判率 ARGV[4] 扩容倍数 ARGV[5] 误判率收紧比例
+--           ARGV[6] 写入范围（all 写当前代和重建中的代，pending 只写重建中的代）ARGV[7..] 依次为每个元素的 h1 h2
+--           返回新写入的元素个数
+-- containsAll: ARGV[2..] 依次为每个元素的 h1 h2，返回与元素一一对应的 1 / 0 数组，还没有构建时返回空数组
+-- begin:    开始重建，返回 1
+-- swap:     重建完成，切换到新代并删除旧代，返回 1，没有在重建时返回 -1
+
+local op = ARGV[1]
+local maxLayers = (#KEYS - 2) / 2 - 1
+
+local function slotOffset(slot)
+    if slot == 'a' then
+        return 2
+    end
+    return 3 + maxLayers
+end
+
+local function metaKey(slot)
+    return KEYS[slotOffset(slot) + 1]
+end
+
+local function layerKey(slot, index)
+    return KEYS[slotOffset(slot) + 2 + index]
+end
+
+local function loadLayers(meta)
+    local layers = tonumber(redis.call('HGET', meta, 'layers') or '0')
+    local list = {}
+    for i = 0, layers - 1 do
+        local v = redis.call('HMGET', meta, 'capacity:' .. i, 'm:' .. i, 'k:' .. i, 'count:' .. i)
+        list[i + 1] = { n = tonumber(v[1]), m = tonumber(v[2]), k = tonumber(v[3]), count = tonumber(v[4]) }
+    end
+    return list
+end
+
+local function layerContains(key, layer, h1, h2)
+    for j = 0, layer.k - 1 do
+        if redis.call('GETBIT', key, (h1 + j * h2) % layer.m) == 0 then
+            return false
+        end
+    end
+    return true
+end
+
+local function generationContains(slot, layers, h1, h2)
+    for i = #layers, 1, -1 do
+        if layerContains(layerKey(slot, i - 1), layers[i], h1, h2) then
+            return true
+        end
+    end
+    return false
+end
+
+local function dropGeneration(slot)
+    for i = 0, maxLayers - 1 do
+        redis.call('UNLINK', layerKey(slot, i))
+    end
+    redis.call('UNLINK', metaKey(slot))
+end
+
+if op == 'containsAll' then
+    local gen = redis.call('GET', KEYS[1])
+    if not gen then
+        return {}
+    end
+    local layers = loadLayers(metaKey(gen))
+    local result = {}
+    for i = 2, #ARGV, 2 do
+        if generationContains(gen, layers, tonumber(ARGV[i]), tonumber(ARGV[i + 1])) then
+            table.insert(result, 1)
+        else
+            table.insert(result, 0)
+        end
+    end
+    return result
+end
+
+if op == 'begin' then
+    -- 使用当前代以外的槽位，上一次重建没有完成时丢弃其中的数据
+    local slot = 'a'
+    if redis.call('GET', KEYS[1]) == 'a' then
+        slot = 'b'
+    end
+    dropGeneration(slot)
+    redis.call('SET', KEYS[2], slot)
+    return 1
+end
+
+if op == 'swap' then
+    local pending = redis.call('GET', KEYS[2])
+    if not pending then
+        return -1
+    end
+    local old = redis.call('GET', KEYS[1])
+    redis.call('SET', KEYS[1], pending)
+    redis.call('DEL', KEYS[2])
+    if old and old ~= pending then
+        dropGeneration(old)
+    end
+    return 1
+end
+
+if op ~= 'add' then
+    return redis.error_reply('unknown op: ' .. tostring(op))
+end
+
+local capacity = tonumber(ARGV[2])
+local fpp = tonumber(ARGV[3])
+local growth = tonumber(ARGV[4])
+local tightening = tonumber(ARGV[5])
+
+local generations = {}
+local pending = redis.call('GET', KEYS[2])
+if pending then
+    table.insert(generations, pending)
+end
+if ARGV[6] == 'all' then
+    local current = redis.call('GET', KEYS[1])
+    if current and current ~= pending then
+        table.insert(generations, current)
+    end
+end
+
+local function newLayer(meta, layers, index)
+    local n = math.floor(capacity * growth ^ index)
+    local p = fpp * tightening ^ index
+    local m = math.ceil(-n * math.log(p) / (math.log(2) ^ 2))
+    local k = math.max(1, math.floor(m / n * math.log(2) + 0.5))
+    redis.call('HSET', meta, 'layers', index + 1, 'capacity:' .. index, n, 'm:' .. index, m, 'k:' .. index, k, 'count:' .. index, 0)
+    layers[index + 1] = { n = n, m = m, k = k, count = 0 }
+end
+
+local added = 0
+for _, gen in ipairs(generations) do
+    local meta = metaKey(gen)
+    local layers = loadLayers(meta)
+    if #layers == 0 then
+        newLayer(meta, layers, 0)
+    end
+    for i = 7, #ARGV, 2 do
+        local h1 = tonumber(ARGV[i])
+        local h2 = tonumber(ARGV[i + 1])
+        if not generationContains(gen, layers, h1, h2) then
+            local index = #layers - 1
+            local layer = layers[index + 1]
+            if layer.count >= layer.n and index + 1 < maxLayers then
+                -- 当前层已满，新开一层
+                index = index + 1
+                newLayer(meta, layers, index)
+                layer = layers[index + 1]
+            end
+            for j = 0, layer.k - 1 do
+                redis.call('SETBIT', layerKey(gen, index), (h1 + j * h2) % layer.m, 1)
+            end
+            layer.count = layer.count + 1
+            redis.call('HSET', meta, 'count:' .. index, layer.count)
+            added = added + 1
+        end
+    end
+end
+return added
@@ -0,0 +1,32 @@
+-- 令牌桶限流（GCRA）：每个键只保存"理论到达时间" tat（微秒），等价于每 interval 补充一个令牌、容量为 window / interval 的令牌桶
+-- 用 Redis 服务器时间计算，各节点时钟不一致也不影响
+--
+-- KEYS[i]       限流键（同一条规则的键带相同的 hash tag，Redis Cluster 下在同一个槽）
+-- ARGV[2i - 1]  补充一个令牌的间隔（微秒）
+-- ARGV[2i]      桶容量对应的时间窗口（容量 × 间隔，微秒）
+-- 所有键都有令牌时才同时扣减；返回 0 表示通过，否则返回第一个没有令牌的键的下标（从 1 开始）
+
+redis.replicate_commands()
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+local tats = {}
+for i = 1, #KEYS do
+    local interval = tonumber(ARGV[2 * i - 1])
+    local window = tonumber(ARGV[2 * i])
+    local tat = tonumber(redis.call('GET', KEYS[i]) or '0')
+    if tat < now then
+        tat = now
+    end
+    tat = tat + interval
+    if tat - now > window then
+        return i
+    end
+    tats[i] = tat
+end
+
+for i = 1, #KEYS do
+    -- 桶恢复满之后键自动过期
+    redis.call('SET', KEYS[i], string.format('%d', tats[i]), 'PX', math.ceil((tats[i] - now) / 1000))
+end
+return 0
@@ -0,0 +1,103 @@
+package com.yupi.usercenter.auth;
+
+import com.yupi.usercenter.config.SessionNearCacheProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Session 近缓存测试（用内存仓库代替 Redis，发布失效通知失败只记录日志）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class NearCacheSessionRepositoryTest {
+
+    @Test
+    void testReadOncePerTtl() {
+        CountingSessionRepository delegate = new CountingSessionRepository();
+        NearCacheSessionRepository<MapSession> repository = createRepository(delegate);
+        MapSession session = delegate.createSession();
+        session.setAttribute("userLoginState", new UserPrincipal(1L, 0, 0, 0L));
+        delegate.save(session);
+
+        for (int i = 0; i < 10; i++) {
+            Session found = repository.findById(session.getId());
+            found.setLastAccessedTime(Instant.now());
+            repository.save(found);
+            Assertions.assertEquals(new UserPrincipal(1L, 0, 0, 0L), found.getAttribute("userLoginState"));
+        }
+        /* 只有第一次读 Redis，访问时间变化没有超过续期间隔，不写回 */
+        Assertions.assertEquals(1, delegate.findCount);
+        Assertions.assertEquals(1, delegate.saveCount);
+    }
+
+    @Test
+    void testWriteThroughOnAttributeChange() {
+        CountingSessionRepository delegate = new CountingSessionRepository();
+        NearCacheSessionRepository<MapSession> repository = createRepository(delegate);
+        MapSession session = delegate.createSession();
+        session.setAttribute("userLoginState", new UserPrincipal(1L, 0, 0, 0L));
+        delegate.save(session);
+
+        Session found = repository.findById(session.getId());
+        found.removeAttribute("userLoginState");
+        repository.save(found);
+        Assertions.assertNull(delegate.sessions.get(session.getId()).getAttribute("userLoginState"));
+        Assertions.assertNull(repository.findById(session.getId()).getAttribute("userLoginState"));
+
+        repository.deleteById(session.getId());
+        Assertions.assertNull(repository.findById(session.getId()));
+    }
+
+    private NearCacheSessionRepository<MapSession> createRepository(CountingSessionRepository delegate) {
+        return new NearCacheSessionRepository<>(delegate, new StringRedisTemplate(), new SessionNearCacheProperties());
+    }
+
+    /**
+     * 记录读写次数的内存 session 仓库
+     */
+    private static class CountingSessionRepository implements FindByIndexNameSessionRepository<MapSession> {
+
+        private final Map<String, MapSession> sessions = new HashMap<>();
+
+        private int findCount;
+
+        private int saveCount;
+
+        @Override
+        public MapSession createSession() {
+            return new MapSession();
+        }
+
+        @Override
+        public void save(MapSession session) {
+            saveCount++;
+            sessions.put(session.getId(), new MapSession(session));
+        }
+
+        @Override
+        public MapSession findById(String id) {
+            findCount++;
+            MapSession session = sessions.get(id);
+            return session == null ? null : new MapSession(session);
+        }
+
+        @Override
+        public void deleteById(String id) {
+            sessions.remove(id);
+        }
+
+        @Override
+        public Map<String, MapSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+            return Collections.emptyMap();
+        }
+    }
+}
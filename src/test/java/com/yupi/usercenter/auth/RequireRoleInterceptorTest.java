@@ -0,0 +1,91 @@
+package com.yupi.usercenter.auth;
+
+import com.yupi.usercenter.annotation.RequireRole;
+import com.yupi.usercenter.common.ErrorCode;
+import com.yupi.usercenter.exception.BusinessException;
+import com.yupi.usercenter.manager.LoginStateManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import static com.yupi.usercenter.contant.UserConstant.ADMIN_ROLE;
+import static com.yupi.usercenter.contant.UserConstant.USER_LOGIN_STATE;
+
+/**
+ * 角色拦截器与请求内登录态缓存测试（session 模式）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class RequireRoleInterceptorTest {
+
+    private final LoginStateManager loginStateManager = new LoginStateManager();
+
+    private final RequireRoleInterceptor interceptor = new RequireRoleInterceptor();
+
+    RequireRoleInterceptorTest() {
+        ReflectionTestUtils.setField(interceptor, "loginStateManager", loginStateManager);
+    }
+
+    @Test
+    void testResolvePrincipalOncePerRequest() throws Exception {
+        CountingSession session = new CountingSession();
+        session.setAttribute(USER_LOGIN_STATE, new UserPrincipal(1L, ADMIN_ROLE, 0, 0L));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+
+        Assertions.assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handler("admin")));
+        Assertions.assertEquals(1L, loginStateManager.getPrincipal(request).getId());
+        Assertions.assertEquals(1L, loginStateManager.getPrincipal(request).getId());
+        Assertions.assertEquals(1, session.readCount);
+    }
+
+    @Test
+    void testRejectWithoutRole() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        BusinessException e = Assertions.assertThrows(BusinessException.class,
+                () -> interceptor.preHandle(request, new MockHttpServletResponse(), handler("admin")));
+        Assertions.assertEquals(ErrorCode.NOT_LOGIN.getCode(), e.getCode());
+
+        MockHttpServletRequest userRequest = new MockHttpServletRequest();
+        userRequest.getSession().setAttribute(USER_LOGIN_STATE, new UserPrincipal(2L, 0, 0, 0L));
+        e = Assertions.assertThrows(BusinessException.class,
+                () -> interceptor.preHandle(userRequest, new MockHttpServletResponse(), handler("admin")));
+        Assertions.assertEquals(ErrorCode.NO_AUTH.getCode(), e.getCode());
+        /* 没有注解的接口不校验 */
+        Assertions.assertTrue(interceptor.preHandle(userRequest, new MockHttpServletResponse(), handler("anyone")));
+    }
+
+    private HandlerMethod handler(String methodName) throws NoSuchMethodException {
+        return new HandlerMethod(new TestController(), TestController.class.getMethod(methodName));
+    }
+
+    public static class TestController {
+
+        @RequireRole(ADMIN_ROLE)
+        public void admin() {
+        }
+
+        public void anyone() {
+        }
+    }
+
+    /**
+     * 记录登录态读取次数的 session
+     */
+    private static class CountingSession extends MockHttpSession {
+
+        private int readCount;
+
+        @Override
+        public Object getAttribute(String name) {
+            if (USER_LOGIN_STATE.equals(name)) {
+                readCount++;
+            }
+            return super.getAttribute(name);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.yupi.usercenter.auth;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 令牌编解码测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class TokenCodecTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final TokenCodec tokenCodec = new TokenCodec(SECRET);
+
+    @Test
+    void testRoundTrip() {
+        TokenClaims claims = new TokenClaims(TokenType.REFRESH, -42L, new UserPrincipal(7L, 1, 0, 1700000000000L), 2000);
+        String token = tokenCodec.encode(claims);
+        Assertions.assertEquals(claims, tokenCodec.decode(token, 1999));
+    }
+
+    @Test
+    void testRejectInvalid() {
+        String token = tokenCodec.encode(new TokenClaims(TokenType.ACCESS, 1L, new UserPrincipal(7L, 0, 0, 0L), 2000));
+        /* 过期 */
+        Assertions.assertNull(tokenCodec.decode(token, 2000));
+        /* 篡改内容（角色） */
+        char[] chars = token.toCharArray();
+        chars[30] = chars[30] == 'A' ? 'B' : 'A';
+        Assertions.assertNull(tokenCodec.decode(new String(chars), 0));
+        /* 其他密钥签名 */
+        TokenCodec otherCodec = new TokenCodec("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNull(otherCodec.decode(token, 0));
+        /* 格式错误 */
+        Assertions.assertNull(tokenCodec.decode(null, 0));
+        Assertions.assertNull(tokenCodec.decode("abc", 0));
+        Assertions.assertNull(tokenCodec.decode("!!.??", 0));
+        Assertions.assertNull(tokenCodec.decode(token.substring(0, token.indexOf('.')) + ".", 0));
+    }
+}
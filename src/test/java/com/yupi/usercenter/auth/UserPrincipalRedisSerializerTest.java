@@ -0,0 +1,40 @@
+package com.yupi.usercenter.auth;
+
+import com.yupi.usercenter.model.domain.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+/**
+ * Session 序列化器测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserPrincipalRedisSerializerTest {
+
+    private final UserPrincipalRedisSerializer serializer = new UserPrincipalRedisSerializer();
+
+    @Test
+    void testRoundTrip() {
+        UserPrincipal principal = new UserPrincipal(1L, 1, 0, 1691302477000L);
+        byte[] bytes = serializer.serialize(principal);
+        Assertions.assertEquals(25, bytes.length);
+        Assertions.assertEquals(principal, serializer.deserialize(bytes));
+        Assertions.assertEquals(1691302477000L, serializer.deserialize(serializer.serialize(1691302477000L)));
+        Assertions.assertEquals(1800, serializer.deserialize(serializer.serialize(1800)));
+        Assertions.assertEquals("鱼皮", serializer.deserialize(serializer.serialize("鱼皮")));
+        Assertions.assertNull(serializer.deserialize(serializer.serialize(null)));
+    }
+
+    @Test
+    void testReadJdkSerialized() {
+        /* 升级前由 JDK 序列化写入的 session 属性 */
+        User user = new User();
+        user.setId(1L);
+        user.setUserRole(1);
+        byte[] bytes = new JdkSerializationRedisSerializer().serialize(user);
+        Assertions.assertEquals(user, serializer.deserialize(bytes));
+        /* 其他类型仍然走 JDK 序列化 */
+        Assertions.assertEquals(user, serializer.deserialize(serializer.serialize(user)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.yupi.usercenter.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 游标分页测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class CursorPageTest {
+
+    @Test
+    void testOfIdsWithMissingRecord() {
+        /* id 3 查不到（从库延迟），仍按 id 判断还有下一页 */
+        CursorPage<Long> page = CursorPage.ofIds(Arrays.asList(1L, 3L, 5L, 7L), 3,
+                idList -> idList.stream().filter(id -> id != 3L).collect(Collectors.toList()));
+        Assertions.assertEquals(Arrays.asList(1L, 5L), page.getRecords());
+        Assertions.assertTrue(page.isHasMore());
+        Assertions.assertEquals(5L, page.getNextCursor());
+
+        List<Long> lastPageIdList = Arrays.asList(7L, 9L);
+        CursorPage<Long> lastPage = CursorPage.ofIds(lastPageIdList, 3, idList -> idList);
+        Assertions.assertEquals(lastPageIdList, lastPage.getRecords());
+        Assertions.assertFalse(lastPage.isHasMore());
+        Assertions.assertNull(lastPage.getNextCursor());
+    }
+}
@@ -0,0 +1,83 @@
+package com.yupi.usercenter.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 读写分离数据源测试（两个 H2 内存库代替主库、从库）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    /**
+     * 不可用的从库（端口 1 没有服务，连接立即被拒绝）
+     */
+    private static final String DOWN_URL = "jdbc:h2:tcp://localhost:1/mem:down";
+
+    @AfterEach
+    void resetRoute() {
+        ReadWriteRoutingDataSource.setReadReplica(false);
+    }
+
+    @Test
+    void testRouteByThread() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(h2(PRIMARY_URL),
+                Collections.singletonList(h2(REPLICA_URL)), 1);
+        Assertions.assertEquals(PRIMARY_URL, url(dataSource));
+
+        boolean previous = ReadWriteRoutingDataSource.setReadReplica(true);
+        Assertions.assertFalse(previous);
+        Assertions.assertEquals(REPLICA_URL, url(dataSource));
+
+        ReadWriteRoutingDataSource.setReadReplica(previous);
+        Assertions.assertEquals(PRIMARY_URL, url(dataSource));
+    }
+
+    @Test
+    void testFallbackToPrimary() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(h2(PRIMARY_URL),
+                Collections.singletonList(h2(DOWN_URL)), 1);
+        ReadWriteRoutingDataSource.setReadReplica(true);
+        Assertions.assertEquals(PRIMARY_URL, url(dataSource));
+        Assertions.assertEquals(0, dataSource.healthyReplicaCount());
+
+        /* 仍然不可用，检查后保持不健康 */
+        dataSource.checkReplicas();
+        Assertions.assertEquals(0, dataSource.healthyReplicaCount());
+    }
+
+    @Test
+    void testSkipUnhealthyReplica() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(h2(PRIMARY_URL),
+                Arrays.asList(h2(DOWN_URL), h2(REPLICA_URL)), 1);
+        ReadWriteRoutingDataSource.setReadReplica(true);
+        /* 轮询到不可用的从库时尝试下一个从库，之后只使用健康的从库 */
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertEquals(REPLICA_URL, url(dataSource));
+        }
+        Assertions.assertEquals(1, dataSource.healthyReplicaCount());
+    }
+
+    private DataSource h2(String url) {
+        return new DriverManagerDataSource(url, "sa", "");
+    }
+
+    private String url(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
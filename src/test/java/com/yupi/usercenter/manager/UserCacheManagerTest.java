@@ -0,0 +1,71 @@
+package com.yupi.usercenter.manager;
+
+import com.yupi.usercenter.config.UserCacheProperties;
+import com.yupi.usercenter.model.vo.UserVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用户缓存测试（关闭 Redis 二级缓存，只验证本地缓存和失效通知）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserCacheManagerTest {
+
+    @Test
+    void testInvalidateFromOtherNode() {
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        UserCacheManager userCacheManager = createUserCacheManager(stringRedisTemplate);
+        AtomicInteger loadCount = new AtomicInteger();
+        userCacheManager.get(1L, userId -> load(userId, loadCount));
+        userCacheManager.get(1L, userId -> load(userId, loadCount));
+        Assertions.assertEquals(1, loadCount.get());
+
+        /* 本节点发出的通知跳过 */
+        userCacheManager.invalidate(2L);
+        ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(stringRedisTemplate).convertAndSend(ArgumentMatchers.eq(UserCacheManager.INVALIDATE_CHANNEL), messageCaptor.capture());
+        String ownNodeId = messageCaptor.getValue().substring(0, messageCaptor.getValue().indexOf(':'));
+        userCacheManager.onMessage(message(ownNodeId + ":1"), null);
+        userCacheManager.get(1L, userId -> load(userId, loadCount));
+        Assertions.assertEquals(1, loadCount.get());
+
+        /* 其他节点修改了用户，删除本地缓存后重新加载 */
+        userCacheManager.onMessage(message("other-node:1"), null);
+        userCacheManager.get(1L, userId -> load(userId, loadCount));
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    private UserCacheManager createUserCacheManager(StringRedisTemplate stringRedisTemplate) {
+        UserCacheProperties userCacheProperties = new UserCacheProperties();
+        userCacheProperties.setRedisEnabled(false);
+        UserCacheManager userCacheManager = new UserCacheManager();
+        ReflectionTestUtils.setField(userCacheManager, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(userCacheManager, "userCacheProperties", userCacheProperties);
+        ReflectionTestUtils.setField(userCacheManager, "meterRegistry", new SimpleMeterRegistry());
+        userCacheManager.init();
+        return userCacheManager;
+    }
+
+    private UserVO load(long userId, AtomicInteger loadCount) {
+        loadCount.incrementAndGet();
+        UserVO user = new UserVO();
+        user.setId(userId);
+        return user;
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(UserCacheManager.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
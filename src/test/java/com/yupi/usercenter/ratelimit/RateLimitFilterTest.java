@@ -0,0 +1,136 @@
+package com.yupi.usercenter.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.usercenter.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * 限流过滤器测试（只用本地令牌桶）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class RateLimitFilterTest {
+
+    @Test
+    void testLimitByAccount() throws Exception {
+        RateLimitFilter filter = createFilter();
+        /* 换 IP、改大小写都算同一个账号 */
+        Assertions.assertEquals(200, login(filter, "10.0.0.1", "yupi001").getStatus());
+        Assertions.assertEquals(200, login(filter, "10.0.0.2", " YUPI001").getStatus());
+        MockHttpServletResponse rejected = login(filter, "10.0.0.3", "yupi001");
+        Assertions.assertEquals(429, rejected.getStatus());
+        Assertions.assertTrue(rejected.getContentAsString().contains("42900"));
+        Assertions.assertEquals(200, login(filter, "10.0.0.3", "yupi002").getStatus());
+    }
+
+    @Test
+    void testLimitByIp() throws Exception {
+        RateLimitFilter filter = createFilter();
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(200, login(filter, "10.0.0.1", "user" + i).getStatus());
+        }
+        Assertions.assertEquals(429, login(filter, "10.0.0.1", "user9").getStatus());
+        /* 其他接口不限流 */
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/user/logout");
+        request.setContextPath("/api");
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        Assertions.assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testEquivalentPaths() throws Exception {
+        RateLimitFilter filter = createFilter();
+        /* 末尾的 /、;jsessionid、编码后的路径都由同一个接口处理，共用同一个限额 */
+        String[] requestUris = {"/api/user/login/", "/api/user/login;jsessionid=abc", "/api/user/%6Cogin"};
+        for (String requestUri : requestUris) {
+            Assertions.assertEquals(200, post(filter, requestUri, "10.0.0.1", "{}").getStatus());
+        }
+        Assertions.assertEquals(429, post(filter, "/api/user/login", "10.0.0.1", "{}").getStatus());
+    }
+
+    @Test
+    void testRejectLargeBody() throws Exception {
+        RateLimitFilter filter = createFilter();
+        /* 填充请求体不能跳过按账号的限流 */
+        String padding = StringUtils.repeat(' ', 5000);
+        MockHttpServletResponse response = post(filter, "10.0.0.1",
+                "{\"userAccount\":\"yupi001\",\"userPassword\":\"12345678\"," + padding + "\"profile\":\"\"}");
+        Assertions.assertEquals(413, response.getStatus());
+        Assertions.assertTrue(response.getContentAsString().contains("40000"));
+
+        /* 分块传输时没有 Content-Length，读取请求体后拒绝 */
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/user/login") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContextPath("/api");
+        request.setRemoteAddr("10.0.0.2");
+        request.setContent(("{\"userAccount\":\"yupi001\"," + padding + "}").getBytes(StandardCharsets.UTF_8));
+        response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+        filter.doFilter(request, response, filterChain);
+        Assertions.assertEquals(413, response.getStatus());
+        Assertions.assertNull(filterChain.getRequest());
+    }
+
+    private RateLimitFilter createFilter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPath("/user/login");
+        rule.setIp(limit(3));
+        rule.setAccount(limit(2));
+        properties.setRules(Collections.singletonList(rule));
+        RateLimiter rateLimiter = new RateLimiter(properties, null, null);
+        return new RateLimitFilter(properties, rateLimiter, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private RateLimitProperties.Limit limit(int capacity) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setRefillPerMinute(1);
+        return limit;
+    }
+
+    private MockHttpServletResponse login(RateLimitFilter filter, String ip, String userAccount) throws Exception {
+        return post(filter, ip, "{\"userAccount\":\"" + userAccount + "\",\"userPassword\":\"12345678\"}");
+    }
+
+    private MockHttpServletResponse post(RateLimitFilter filter, String ip, String body) throws Exception {
+        return post(filter, "/api/user/login", ip, body);
+    }
+
+    private MockHttpServletResponse post(RateLimitFilter filter, String requestUri, String ip, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", requestUri);
+        request.setContextPath("/api");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        /* 放行时 Controller 仍能读到完整的请求体 */
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                Assertions.assertEquals(body, StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8));
+            }
+        }));
+        return response;
+    }
+}
@@ -0,0 +1,70 @@
+package com.yupi.usercenter.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 令牌桶测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstAndRefill() {
+        long now = 0;
+        /* 容量 3，每秒补充 1 个 */
+        TokenBucket bucket = new TokenBucket(3, 60, now);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(bucket.tryAcquire(now));
+        }
+        Assertions.assertFalse(bucket.tryAcquire(now));
+        Assertions.assertFalse(bucket.tryAcquire(now + SECOND / 2));
+        /* 1 秒后补充 1 个 */
+        Assertions.assertTrue(bucket.tryAcquire(now + SECOND));
+        Assertions.assertFalse(bucket.tryAcquire(now + SECOND));
+        /* 空闲很久之后最多攒满 3 个 */
+        long later = now + 100 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(bucket.tryAcquire(later));
+        }
+        Assertions.assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    void testConcurrentAcquire() throws Exception {
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(100, 0.001, now);
+        AtomicInteger acquired = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (bucket.tryAcquire(now)) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        /* 同一时刻并发取令牌，恰好取到容量个 */
+        Assertions.assertEquals(100, acquired.get());
+    }
+}
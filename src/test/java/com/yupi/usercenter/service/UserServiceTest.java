@@ -3,6 +3,7 @@ package com.yupi.usercenter.service;
 // [编程学习交流圈](https://www.code-nav.cn/) 连接万名编程爱好者，一起优秀！20000+ 小伙伴交流分享、40+ 大厂嘉宾一对一答疑、100+ 各方向编程交流群、4000+ 编程问答参考
 
 import com.yupi.usercenter.model.domain.User;
+import com.yupi.usercenter.model.vo.UserVO;
 import org.junit.Assert;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -122,7 +123,7 @@ public class UserServiceTest {
     @Test
     void testSearchUsersByTags() {
         List<String> tagNameList = Arrays.asList("java", "python");
-        List<User> userList = userService.searchUsersByTags(tagNameList);
+        List<UserVO> userList = userService.searchUsersByTags(tagNameList);
         Assert.assertNotNull(userList);
     }
 
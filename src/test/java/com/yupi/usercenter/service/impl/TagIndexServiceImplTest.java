@@ -0,0 +1,90 @@
+package com.yupi.usercenter.service.impl;
+
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 标签倒排索引测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class TagIndexServiceImplTest {
+
+    @Test
+    void testSearchUserIds() {
+        TagIndexServiceImpl tagIndexService = new TagIndexServiceImpl();
+        tagIndexService.updateUserTags(1L, "[\"java\",\"python\"]");
+        tagIndexService.updateUserTags(2L, "[\"java\"]");
+        tagIndexService.updateUserTags(3L, "[\"python\",\"java\",\"c++\"]");
+
+        List<Long> userIdList = tagIndexService.searchUserIds(Arrays.asList("java", "python"));
+        Assertions.assertEquals(Arrays.asList(1L, 3L), userIdList);
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L), tagIndexService.searchUserIds(Collections.singletonList("java")));
+        Assertions.assertTrue(tagIndexService.searchUserIds(Arrays.asList("java", "go")).isEmpty());
+        /* 线性扫描与位图求交集结果一致 */
+        Assertions.assertEquals(userIdList, tagIndexService.scanUserIds(Arrays.asList("java", "python")));
+    }
+
+    @Test
+    void testSearchUserIdsAfterId() {
+        TagIndexServiceImpl tagIndexService = new TagIndexServiceImpl();
+        for (long userId = 1; userId <= 10; userId++) {
+            tagIndexService.updateUserTags(userId, userId % 2 == 0 ? "[\"java\"]" : "[\"python\"]");
+        }
+        List<String> tagNameList = Collections.singletonList("java");
+        Assertions.assertEquals(Arrays.asList(2L, 4L, 6L), tagIndexService.searchUserIds(tagNameList, 0, 3));
+        Assertions.assertEquals(Arrays.asList(8L, 10L), tagIndexService.searchUserIds(tagNameList, 6, 3));
+        Assertions.assertEquals(Arrays.asList(8L, 10L), tagIndexService.searchUserIds(tagNameList, 7, 3));
+        Assertions.assertTrue(tagIndexService.searchUserIds(tagNameList, 10, 3).isEmpty());
+    }
+
+    @Test
+    void testUpdateAndRemoveUser() {
+        TagIndexServiceImpl tagIndexService = new TagIndexServiceImpl();
+        tagIndexService.updateUserTags(1L, "[\"java\",\"python\"]");
+        tagIndexService.updateUserTags(2L, "[\"java\"]");
+
+        tagIndexService.updateUserTags(1L, "[\"go\"]");
+        Assertions.assertEquals(Collections.singletonList(2L), tagIndexService.searchUserIds(Collections.singletonList("java")));
+        Assertions.assertEquals(Collections.singletonList(1L), tagIndexService.searchUserIds(Collections.singletonList("go")));
+
+        tagIndexService.removeUser(2L);
+        Assertions.assertTrue(tagIndexService.searchUserIds(Collections.singletonList("java")).isEmpty());
+        /* 非法 JSON 视为没有标签 */
+        tagIndexService.updateUserTags(3L, "java");
+        Assertions.assertTrue(tagIndexService.searchUserIds(Collections.singletonList("java")).isEmpty());
+    }
+
+    @Test
+    void testRebuildKeepsConcurrentChanges() {
+        TagIndexServiceImpl tagIndexService = new TagIndexServiceImpl();
+        UserMapper userMapper = Mockito.mock(UserMapper.class);
+        ReflectionTestUtils.setField(tagIndexService, "userMapper", userMapper);
+        /* 读出的是修改前的数据，读的过程中用户 1 改了标签、用户 2 被删除 */
+        Mockito.when(userMapper.selectList(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            tagIndexService.updateUserTags(1L, "[\"go\"]");
+            tagIndexService.removeUser(2L);
+            return Arrays.asList(user(1L, "[\"java\"]"), user(2L, "[\"java\"]"), user(3L, "[\"java\"]"));
+        });
+
+        tagIndexService.rebuild();
+        Assertions.assertEquals(Collections.singletonList(3L), tagIndexService.searchUserIds(Collections.singletonList("java")));
+        Assertions.assertEquals(Collections.singletonList(1L), tagIndexService.searchUserIds(Collections.singletonList("go")));
+    }
+
+    private User user(long id, String tags) {
+        User user = new User();
+        user.setId(id);
+        user.setTags(tags);
+        return user;
+    }
+}
@@ -0,0 +1,122 @@
+package com.yupi.usercenter.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.usercenter.config.UserImportProperties;
+import com.yupi.usercenter.manager.UserBloomFilterManager;
+import com.yupi.usercenter.manager.UserIndexSyncManager;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.response.UserImportResult;
+import com.yupi.usercenter.model.enums.UserImportFormat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 批量导入写库失败测试（JdbcTemplate 等依赖用 Mockito 代替）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserImportServiceImplTest {
+
+    private static final String ROWS = "{\"userAccount\":\"user01\",\"userPassword\":\"12345678\",\"planetCode\":\"1\"}\n"
+            + "{\"userAccount\":\"user02\",\"userPassword\":\"12345678\",\"planetCode\":\"2\"}\n"
+            + "{\"userAccount\":\"user03\",\"userPassword\":\"12345678\",\"planetCode\":\"3\"}\n";
+
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+
+    @Test
+    void testInvalidRowDoesNotAbortImport() throws Exception {
+        UserImportServiceImpl userImportService = createUserImportService();
+        /* 整批失败后逐行插入，只有第 2 行超过列长度 */
+        Mockito.when(jdbcTemplate.batchUpdate(Mockito.anyString(), Mockito.anyList(), Mockito.anyInt(), Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column"));
+        AtomicInteger rowCount = new AtomicInteger();
+        Mockito.when(jdbcTemplate.update(Mockito.anyString(), Mockito.any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+            if (rowCount.incrementAndGet() == 2) {
+                throw new DataIntegrityViolationException("Data too long for column");
+            }
+            return 1;
+        });
+
+        UserImportResult result = importUsers(userImportService);
+        Assertions.assertEquals(2, result.getSuccessCount());
+        Assertions.assertEquals(1, result.getFailCount());
+        Assertions.assertEquals(2, result.getFailRows().get(0).getRow());
+        Assertions.assertNull(result.getErrorMessage());
+    }
+
+    @Test
+    void testDatabaseDownReturnsPartialResult() throws Exception {
+        UserImportServiceImpl userImportService = createUserImportService();
+        /* 第一批（2 行）导入成功，第二批写库时数据库不可用 */
+        AtomicInteger batchCount = new AtomicInteger();
+        Mockito.when(jdbcTemplate.batchUpdate(Mockito.anyString(), Mockito.anyList(), Mockito.anyInt(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    if (batchCount.incrementAndGet() == 2) {
+                        throw new CannotGetJdbcConnectionException("connection refused");
+                    }
+                    return new int[0][];
+                });
+
+        UserImportResult result = importUsers(userImportService);
+        Assertions.assertEquals(2, result.getSuccessCount());
+        Assertions.assertEquals(1, result.getFailCount());
+        Assertions.assertEquals(3, result.getFailRows().get(0).getRow());
+        Assertions.assertNotNull(result.getErrorMessage());
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(Mockito.anyString(), Mockito.any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void testNullLineIsFormatError() throws Exception {
+        UserImportServiceImpl userImportService = createUserImportService();
+        String rows = "{\"userAccount\":\"user01\",\"userPassword\":\"12345678\",\"planetCode\":\"1\"}\n"
+                + "null\n";
+
+        UserImportResult result = importUsers(userImportService, rows);
+        Assertions.assertEquals(1, result.getSuccessCount());
+        Assertions.assertEquals(1, result.getFailCount());
+        Assertions.assertEquals(2, result.getFailRows().get(0).getRow());
+        Assertions.assertEquals("格式错误", result.getFailRows().get(0).getMessage());
+        Assertions.assertNull(result.getErrorMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private UserImportServiceImpl createUserImportService() {
+        TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+        Mockito.doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(Mockito.mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(Mockito.any());
+        UserImportProperties userImportProperties = new UserImportProperties();
+        userImportProperties.setChunkSize(2);
+        UserImportServiceImpl userImportService = new UserImportServiceImpl();
+        ReflectionTestUtils.setField(userImportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(userImportService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(userImportService, "userMapper", Mockito.mock(UserMapper.class));
+        ReflectionTestUtils.setField(userImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(userImportService, "userImportProperties", userImportProperties);
+        ReflectionTestUtils.setField(userImportService, "userBloomFilterManager", Mockito.mock(UserBloomFilterManager.class));
+        ReflectionTestUtils.setField(userImportService, "userIndexSyncManager", Mockito.mock(UserIndexSyncManager.class));
+        return userImportService;
+    }
+
+    private UserImportResult importUsers(UserImportServiceImpl userImportService) throws Exception {
+        return importUsers(userImportService, ROWS);
+    }
+
+    private UserImportResult importUsers(UserImportServiceImpl userImportService, String rows) throws Exception {
+        return userImportService.importUsers(new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)), UserImportFormat.NDJSON);
+    }
+}
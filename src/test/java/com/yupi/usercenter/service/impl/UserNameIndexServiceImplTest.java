@@ -0,0 +1,106 @@
+package com.yupi.usercenter.service.impl;
+
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 用户名 n-gram 索引测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserNameIndexServiceImplTest {
+
+    @Test
+    void testSearchUserIds() {
+        UserNameIndexServiceImpl userNameIndexService = new UserNameIndexServiceImpl();
+        userNameIndexService.updateUser(1L, "YuPi", "yupi");
+        userNameIndexService.updateUser(2L, "dogYupi", "dog");
+        userNameIndexService.updateUser(3L, "鱼皮", "fish");
+        userNameIndexService.updateUser(4L, null, "pigeon");
+
+        /* 用户名、账号都参与匹配，忽略大小写 */
+        Assertions.assertEquals(Arrays.asList(1L, 2L), userNameIndexService.searchUserIds("upi", 0, 10));
+        Assertions.assertEquals(Arrays.asList(1L, 2L), userNameIndexService.searchUserIds("YUP", 0, 10));
+        Assertions.assertEquals(Collections.singletonList(4L), userNameIndexService.searchUserIds("geo", 0, 10));
+        /* 三元组都存在但不是连续子串 */
+        Assertions.assertTrue(userNameIndexService.searchUserIds("yupiyupi", 0, 10).isEmpty());
+        /* 不跨用户名和账号匹配 */
+        Assertions.assertTrue(userNameIndexService.searchUserIds("pidog", 0, 10).isEmpty());
+        /* 少于 3 个字符时查单字、双字位图 */
+        Assertions.assertEquals(Collections.singletonList(3L), userNameIndexService.searchUserIds("鱼", 0, 10));
+        Assertions.assertEquals(Arrays.asList(2L, 4L), userNameIndexService.searchUserIds("g", 0, 10));
+        Assertions.assertEquals(Arrays.asList(1L, 2L), userNameIndexService.searchUserIds("Up", 0, 10));
+        Assertions.assertEquals(Arrays.asList(2L, 4L), userNameIndexService.searchUserIds("pi", 1, 10));
+        /* 双字同样不跨用户名和账号匹配 */
+        Assertions.assertTrue(userNameIndexService.searchUserIds("id", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearchUserIdsAfterId() {
+        UserNameIndexServiceImpl userNameIndexService = new UserNameIndexServiceImpl();
+        for (long userId = 1; userId <= 10; userId++) {
+            userNameIndexService.updateUser(userId, userId % 2 == 0 ? "java" + userId : "python" + userId, "account" + userId);
+        }
+        Assertions.assertEquals(Arrays.asList(2L, 4L, 6L), userNameIndexService.searchUserIds("java", 0, 3));
+        Assertions.assertEquals(Arrays.asList(8L, 10L), userNameIndexService.searchUserIds("java", 6, 3));
+        Assertions.assertEquals(Arrays.asList(8L, 10L), userNameIndexService.searchUserIds("java", 7, 3));
+        Assertions.assertTrue(userNameIndexService.searchUserIds("java", 10, 3).isEmpty());
+        Assertions.assertEquals(Arrays.asList(9L, 10L), userNameIndexService.searchUserIds("t", 8, 3));
+    }
+
+    @Test
+    void testUpdateAndRemoveUser() {
+        UserNameIndexServiceImpl userNameIndexService = new UserNameIndexServiceImpl();
+        userNameIndexService.updateUser(1L, "alice", "user01");
+        userNameIndexService.updateUser(2L, "bob", "user02");
+
+        /* 只修改用户名时账号保持不变 */
+        userNameIndexService.updateUser(1L, "carol", null);
+        Assertions.assertTrue(userNameIndexService.searchUserIds("alice", 0, 10).isEmpty());
+        Assertions.assertEquals(Collections.singletonList(1L), userNameIndexService.searchUserIds("carol", 0, 10));
+        Assertions.assertEquals(Arrays.asList(1L, 2L), userNameIndexService.searchUserIds("user0", 0, 10));
+
+        userNameIndexService.removeUser(2L);
+        Assertions.assertTrue(userNameIndexService.searchUserIds("bob", 0, 10).isEmpty());
+        Assertions.assertTrue(userNameIndexService.searchUserIds("b", 0, 10).isEmpty());
+
+        User user = new User();
+        user.setId(3L);
+        user.setUserAccount("imported");
+        userNameIndexService.addUsers(Collections.singletonList(user));
+        Assertions.assertEquals(Collections.singletonList(3L), userNameIndexService.searchUserIds("port", 0, 10));
+    }
+
+    @Test
+    void testRebuildKeepsConcurrentChanges() {
+        UserNameIndexServiceImpl userNameIndexService = new UserNameIndexServiceImpl();
+        UserMapper userMapper = Mockito.mock(UserMapper.class);
+        ReflectionTestUtils.setField(userNameIndexService, "userMapper", userMapper);
+        /* 读出的是修改前的数据，读的过程中用户 1 改了用户名、用户 2 被删除 */
+        Mockito.when(userMapper.selectList(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            userNameIndexService.updateUser(1L, "fish", null);
+            userNameIndexService.removeUser(2L);
+            return Arrays.asList(user(1L, "yupi", "yupi01"), user(2L, "yupi", "yupi02"), user(3L, "yupi", "yupi03"));
+        });
+
+        userNameIndexService.rebuild();
+        Assertions.assertEquals(Collections.singletonList(3L), userNameIndexService.searchUserIds("yupi", 0, 10));
+        Assertions.assertEquals(Collections.singletonList(1L), userNameIndexService.searchUserIds("fish", 0, 10));
+    }
+
+    private User user(long id, String username, String userAccount) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setUserAccount(userAccount);
+        return user;
+    }
+}
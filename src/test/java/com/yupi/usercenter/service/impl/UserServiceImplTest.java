@@ -0,0 +1,77 @@
+package com.yupi.usercenter.service.impl;
+
+import com.yupi.usercenter.auth.UserPrincipal;
+import com.yupi.usercenter.manager.UserBloomFilterManager;
+import com.yupi.usercenter.manager.UserCacheManager;
+import com.yupi.usercenter.manager.UserIndexSyncManager;
+import com.yupi.usercenter.manager.UserSessionManager;
+import com.yupi.usercenter.mapper.UserMapper;
+import com.yupi.usercenter.model.domain.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.yupi.usercenter.contant.UserConstant.ADMIN_ROLE;
+
+/**
+ * 用户服务修改权限测试（Mapper 等依赖用 Mockito 代替）
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserServiceImplTest {
+
+    private final UserMapper userMapper = Mockito.mock(UserMapper.class);
+
+    private final UserSessionManager userSessionManager = Mockito.mock(UserSessionManager.class);
+
+    @Test
+    void testNonAdminCannotChangeRole() {
+        UserServiceImpl userService = createUserService();
+        User user = new User();
+        user.setId(1L);
+        user.setVersion(0);
+        user.setUsername("yupi");
+        user.setUserRole(ADMIN_ROLE);
+        user.setUserStatus(1);
+
+        userService.updateUser(user, new UserPrincipal(1L, 0, 0, 0L));
+        User updated = captureUpdate();
+        /* 普通用户只能修改资料，传入的角色、状态被忽略，也不刷新 session 中的登录态 */
+        Assertions.assertEquals("yupi", updated.getUsername());
+        Assertions.assertNull(updated.getUserRole());
+        Assertions.assertNull(updated.getUserStatus());
+        Mockito.verify(userSessionManager, Mockito.never()).refreshPrincipal(Mockito.any());
+    }
+
+    @Test
+    void testAdminCanChangeRole() {
+        UserServiceImpl userService = createUserService();
+        User user = new User();
+        user.setId(2L);
+        user.setVersion(0);
+        user.setUserRole(ADMIN_ROLE);
+
+        userService.updateUser(user, new UserPrincipal(1L, ADMIN_ROLE, 0, 0L));
+        Assertions.assertEquals(ADMIN_ROLE, captureUpdate().getUserRole());
+        Mockito.verify(userSessionManager).refreshPrincipal(Mockito.any());
+    }
+
+    private UserServiceImpl createUserService() {
+        Mockito.when(userMapper.updateById(Mockito.any(User.class))).thenReturn(1);
+        UserServiceImpl userService = new UserServiceImpl();
+        ReflectionTestUtils.setField(userService, "userMapper", userMapper);
+        ReflectionTestUtils.setField(userService, "userSessionManager", userSessionManager);
+        ReflectionTestUtils.setField(userService, "userCacheManager", Mockito.mock(UserCacheManager.class));
+        ReflectionTestUtils.setField(userService, "userBloomFilterManager", Mockito.mock(UserBloomFilterManager.class));
+        ReflectionTestUtils.setField(userService, "userIndexSyncManager", Mockito.mock(UserIndexSyncManager.class));
+        return userService;
+    }
+
+    private User captureUpdate() {
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        Mockito.verify(userMapper).updateById(captor.capture());
+        return captor.getValue();
+    }
+}
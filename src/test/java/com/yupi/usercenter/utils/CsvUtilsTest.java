@@ -0,0 +1,22 @@
+package com.yupi.usercenter.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * CSV 解析测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class CsvUtilsTest {
+
+    @Test
+    void testParseLine() {
+        Assertions.assertEquals(Arrays.asList("yupi", "12345678", "1"), CsvUtils.parseLine("yupi,12345678,1"));
+        Assertions.assertEquals(Arrays.asList("yupi", "", ""), CsvUtils.parseLine("yupi,,"));
+        Assertions.assertEquals(Arrays.asList("yupi", "a,\"b\"", "1"), CsvUtils.parseLine("yupi,\"a,\"\"b\"\"\",1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CsvUtils.parseLine("yupi,\"abc"));
+    }
+}
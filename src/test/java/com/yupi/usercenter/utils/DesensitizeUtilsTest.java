@@ -0,0 +1,27 @@
+package com.yupi.usercenter.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 手机号、邮箱脱敏测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class DesensitizeUtilsTest {
+
+    @Test
+    void testMaskPhone() {
+        Assertions.assertEquals("138****8000", DesensitizeUtils.maskPhone("13800138000"));
+        Assertions.assertEquals("****", DesensitizeUtils.maskPhone("123456"));
+        Assertions.assertEquals("****", DesensitizeUtils.maskPhone(null));
+    }
+
+    @Test
+    void testMaskEmail() {
+        Assertions.assertEquals("te****@example.com", DesensitizeUtils.maskEmail("test@example.com"));
+        Assertions.assertEquals("****@example.com", DesensitizeUtils.maskEmail("ab@example.com"));
+        Assertions.assertEquals("****", DesensitizeUtils.maskEmail("example.com"));
+        Assertions.assertEquals("****", DesensitizeUtils.maskEmail(" "));
+    }
+}
@@ -0,0 +1,37 @@
+package com.yupi.usercenter.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * 标签字典测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class TagDictionaryTest {
+
+    @Test
+    void testEncode() {
+        TagDictionary tagDictionary = new TagDictionary();
+        int[] tagIds = tagDictionary.encode(Arrays.asList("python", "java", "python"));
+        Assertions.assertArrayEquals(new int[]{0, 1}, tagIds);
+        Assertions.assertEquals("python", tagDictionary.getTag(0));
+        Assertions.assertEquals("[\"python\",\"java\"]", tagDictionary.toJson(tagIds));
+        Assertions.assertArrayEquals(new int[]{1}, tagDictionary.encodeExisting(Arrays.asList("java")));
+        /* 从未出现过的标签不会分配编号 */
+        Assertions.assertNull(tagDictionary.encodeExisting(Arrays.asList("java", "go")));
+        Assertions.assertEquals(2, tagDictionary.size());
+    }
+
+    @Test
+    void testContainsAll() {
+        int[] userTagIds = {1, 3, 5, 8};
+        Assertions.assertTrue(TagDictionary.containsAll(userTagIds, new int[]{3, 8}));
+        Assertions.assertTrue(TagDictionary.containsAll(userTagIds, new int[0]));
+        Assertions.assertFalse(TagDictionary.containsAll(userTagIds, new int[]{3, 4}));
+        Assertions.assertFalse(TagDictionary.containsAll(userTagIds, new int[]{9}));
+        Assertions.assertFalse(TagDictionary.containsAll(new int[]{1}, new int[]{1, 3}));
+    }
+}
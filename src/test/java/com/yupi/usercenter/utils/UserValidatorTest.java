@@ -0,0 +1,49 @@
+package com.yupi.usercenter.utils;
+
+import com.yupi.usercenter.model.enums.UserValidationError;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+/**
+ * 注册 / 登录参数校验测试
+ *
+ * @author <a href="https://github.com/zcnovice"> zcnovice</a>
+ */
+public class UserValidatorTest {
+
+    /**
+     * 原注册 / 登录中的正则
+     */
+    private static final Pattern VALID_PATTERN = Pattern.compile("[`~!@#$%^&*()+=|{}':;',\\\\[\\\\].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]");
+
+    @Test
+    void testContainsIllegalCharMatchesRegex() {
+        for (char c = 0; c < Character.MAX_VALUE; c++) {
+            String str = "yupi" + c;
+            Assertions.assertEquals(VALID_PATTERN.matcher(str).find(), UserValidator.containsIllegalChar(str), "char: " + (int) c);
+        }
+    }
+
+    @Test
+    void testValidateRegister() {
+        Assertions.assertNull(UserValidator.validateRegister("yupi", "12345678", "12345678", "1"));
+        Assertions.assertEquals(UserValidationError.PARAMS_BLANK, UserValidator.validateRegister("yupi", " ", "12345678", "1"));
+        Assertions.assertEquals(UserValidationError.ACCOUNT_TOO_SHORT, UserValidator.validateRegister("yu", "12345678", "12345678", "1"));
+        Assertions.assertEquals(UserValidationError.PASSWORD_TOO_SHORT, UserValidator.validateRegister("yupi", "123456", "123456", "1"));
+        Assertions.assertEquals(UserValidationError.PLANET_CODE_TOO_LONG, UserValidator.validateRegister("yupi", "12345678", "12345678", "123456"));
+        Assertions.assertEquals(UserValidationError.ACCOUNT_ILLEGAL_CHAR, UserValidator.validateRegister("yu pi!", "12345678", "12345678", "1"));
+        Assertions.assertEquals(UserValidationError.PASSWORD_NOT_MATCH, UserValidator.validateRegister("yupi", "12345678", "123456789", "1"));
+    }
+
+    @Test
+    void testValidateLogin() {
+        Assertions.assertNull(UserValidator.validateLogin("yupi", "12345678"));
+        Assertions.assertEquals(UserValidationError.PARAMS_BLANK, UserValidator.validateLogin(null, "12345678"));
+        Assertions.assertEquals(UserValidationError.ACCOUNT_ILLEGAL_CHAR, UserValidator.validateLogin("yupi【】", "12345678"));
+        /* 与原正则一致，[ ] 不算特殊字符 */
+        Assertions.assertNull(UserValidator.validateLogin("[yupi]", "12345678"));
+        Assertions.assertNull(UserValidator.validateRegister("[yupi]", "12345678", "12345678", "1"));
+    }
+}